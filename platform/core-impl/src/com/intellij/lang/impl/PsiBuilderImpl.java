@@ -1165,13 +1165,25 @@ public class PsiBuilderImpl extends UserDataHolderBase implements PsiBuilder {
         LOG.error(UNBALANCED_MESSAGE);
       }
 
+      final WhitespacesAndCommentsBinder binder = item.myEdgeTokenBinder;
       final int prevProductionLexIndex = myProduction.get(i - 1).myLexemeIndex;
       int idx = item.myLexemeIndex;
-      while (idx > prevProductionLexIndex && whitespaceOrComment(myLexTypes[idx - 1])) idx--;
+      if (binder != WhitespacesBinders.DEFAULT_LEFT_BINDER) {
+        while (idx > prevProductionLexIndex && whitespaceOrComment(myLexTypes[idx - 1])) idx--;
+        if (binder == WhitespacesBinders.DEFAULT_RIGHT_BINDER) {
+          // the most common binders don't look at the tokens, there is no need to scan the white space on both sides for them
+          item.myLexemeIndex = idx;
+          continue;
+        }
+      }
       final int wsStartIndex = idx;
 
       int wsEndIndex = item.myLexemeIndex;
       while (wsEndIndex < myLexemeCount && whitespaceOrComment(myLexTypes[wsEndIndex])) wsEndIndex++;
+      if (binder == WhitespacesBinders.DEFAULT_LEFT_BINDER) {
+        item.myLexemeIndex = wsEndIndex;
+        continue;
+      }
 
       if (wsTokens == null) wsTokens = new RelativeTokenTypesView();
       wsTokens.configure(wsStartIndex, wsEndIndex);
@@ -1179,7 +1191,7 @@ public class PsiBuilderImpl extends UserDataHolderBase implements PsiBuilder {
       if (tokenTextGetter == null) tokenTextGetter = new RelativeTokenTextView();
       tokenTextGetter.configure(wsStartIndex);
 
-      item.myLexemeIndex = wsStartIndex + item.myEdgeTokenBinder.getEdgePosition(wsTokens, atEnd, tokenTextGetter);
+      item.myLexemeIndex = wsStartIndex + binder.getEdgePosition(wsTokens, atEnd, tokenTextGetter);
     }
   }
 
@@ -28,18 +28,16 @@ import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.tree.MarkersHolderFileViewProvider;
 import com.intellij.reference.SoftReference;
-import com.intellij.util.containers.UnsafeWeakList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.lang.ref.Reference;
-import java.util.List;
 
 public class SmartPointerManagerImpl extends SmartPointerManager {
   private static final Logger LOG = Logger.getInstance("#com.intellij.psi.impl.smartPointers.SmartPointerManagerImpl");
 
-  private static final Key<List<SmartPointerEx>> SMART_POINTERS_IN_PSI_FILE_KEY = Key.create("SMART_POINTERS_IN_PSI_FILE_KEY");
+  private static final Key<SmartPointerSet> SMART_POINTERS_IN_PSI_FILE_KEY = Key.create("SMART_POINTERS_IN_PSI_FILE_KEY");
   private static final Key<Boolean> BELTS_ARE_FASTEN_KEY = Key.create("BELTS_ARE_FASTEN_KEY");
 
   private final Project myProject;
@@ -55,13 +53,11 @@ public class SmartPointerManagerImpl extends SmartPointerManager {
 
       file.putUserData(BELTS_ARE_FASTEN_KEY, Boolean.TRUE);
 
-      List<SmartPointerEx> pointers = getPointers(file);
+      SmartPointerSet pointers = getPointers(file);
       if (pointers == null) return;
       PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(file.getProject());
 
-      //noinspection ForLoopReplaceableByForEach
-      for (int i = 0; i < pointers.size(); i++) {
-        SmartPointerEx pointer = pointers.get(i);
+      for (SmartPointerEx pointer : pointers) {
         if (pointer != null) {
           pointer.fastenBelt(offset, cachedRangeMarkers);
         }
@@ -87,12 +83,10 @@ public class SmartPointerManagerImpl extends SmartPointerManager {
       PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(file.getProject());
       file.putUserData(BELTS_ARE_FASTEN_KEY, null);
 
-      List<SmartPointerEx> pointers = getPointers(file);
+      SmartPointerSet pointers = getPointers(file);
       if (pointers == null) return;
 
-      //noinspection ForLoopReplaceableByForEach
-      for (int i = 0; i < pointers.size(); i++) {
-        SmartPointerEx pointer = pointers.get(i);
+      for (SmartPointerEx pointer : pointers) {
         if (pointer != null) {
           pointer.unfastenBelt(offset);
         }
@@ -168,9 +162,10 @@ public class SmartPointerManagerImpl extends SmartPointerManager {
   private <E extends PsiElement> void initPointer(@NotNull SmartPointerEx<E> pointer, PsiFile containingFile) {
     if (containingFile == null) return;
     synchronized (lock) {
-      List<SmartPointerEx> pointers = getPointers(containingFile);
+      SmartPointerSet pointers = getPointers(containingFile);
       if (pointers == null) {
-        pointers = new UnsafeWeakList<SmartPointerEx>(); // we synchronise access anyway
+        // identity-based, so that removing a pointer doesn't need to scan all pointers of the file
+        pointers = new SmartPointerSet();
         containingFile.putUserData(SMART_POINTERS_IN_PSI_FILE_KEY, pointers);
       }
       pointers.add(pointer);
@@ -193,25 +188,25 @@ public class SmartPointerManagerImpl extends SmartPointerManager {
           }
           PsiFile containingFile = pointer.getContainingFile();
           if (containingFile == null) return false;
-          List<SmartPointerEx> pointers = getPointers(containingFile);
+          SmartPointerSet pointers = getPointers(containingFile);
           if (pointers == null) return false;
           SmartPointerElementInfo info = ((SmartPsiElementPointerImpl)pointer).getElementInfo();
           info.cleanup();
-          return pointers.remove(pointer);
+          return pointers.remove((SmartPointerEx)pointer);
         }
       }
     }
     return false;
   }
 
-  private static List<SmartPointerEx> getPointers(@NotNull PsiFile containingFile) {
+  private static SmartPointerSet getPointers(@NotNull PsiFile containingFile) {
     return containingFile.getUserData(SMART_POINTERS_IN_PSI_FILE_KEY);
   }
 
   @TestOnly
   public int getPointersNumber(@NotNull PsiFile containingFile) {
     synchronized (lock) {
-      List<SmartPointerEx> pointers = getPointers(containingFile);
+      SmartPointerSet pointers = getPointers(containingFile);
       return pointers == null ? 0 : pointers.size();
     }
   }
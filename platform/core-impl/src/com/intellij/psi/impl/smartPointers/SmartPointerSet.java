@@ -0,0 +1,102 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.psi.impl.smartPointers;
+
+import gnu.trove.THashSet;
+import gnu.trove.TObjectHashingStrategy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Weakly referenced smart pointers of a file.
+ * <p/>
+ * Pointers are compared by identity: {@link SmartPsiElementPointerImpl#equals(Object)} compares the elements pointed to,
+ * so different but equal pointers must not replace each other here.
+ * Not thread-safe, access is guarded by the {@link SmartPointerManagerImpl} lock.
+ */
+class SmartPointerSet implements Iterable<SmartPointerEx> {
+  private static final TObjectHashingStrategy<PointerReference> IDENTITY = new TObjectHashingStrategy<PointerReference>() {
+    @Override
+    public int computeHashCode(PointerReference reference) {
+      return reference.myHash;
+    }
+
+    @Override
+    public boolean equals(PointerReference r1, PointerReference r2) {
+      if (r1 == r2) return true;
+      SmartPointerEx pointer = r1.get();
+      return pointer != null && pointer == r2.get();
+    }
+  };
+
+  private final THashSet<PointerReference> myReferences = new THashSet<PointerReference>(IDENTITY);
+  private final ReferenceQueue<SmartPointerEx> myQueue = new ReferenceQueue<SmartPointerEx>();
+
+  void add(@NotNull SmartPointerEx pointer) {
+    processQueue();
+    myReferences.add(new PointerReference(pointer, myQueue));
+  }
+
+  boolean remove(@NotNull SmartPointerEx pointer) {
+    processQueue();
+    return myReferences.remove(new PointerReference(pointer, null));
+  }
+
+  int size() {
+    processQueue();
+    return myReferences.size();
+  }
+
+  /**
+   * Iterates over a snapshot of the pointers which have not been collected yet, so the set may be modified meanwhile.
+   */
+  @NotNull
+  @Override
+  public Iterator<SmartPointerEx> iterator() {
+    processQueue();
+    List<SmartPointerEx> pointers = new ArrayList<SmartPointerEx>(myReferences.size());
+    for (PointerReference reference : myReferences) {
+      SmartPointerEx pointer = reference.get();
+      if (pointer != null) {
+        pointers.add(pointer);
+      }
+    }
+    return pointers.iterator();
+  }
+
+  private void processQueue() {
+    Object reference;
+    while ((reference = myQueue.poll()) != null) {
+      myReferences.remove(reference);
+    }
+  }
+
+  private static class PointerReference extends WeakReference<SmartPointerEx> {
+    // identity hash code of the pointer, stored here since the pointer may be collected
+    private final int myHash;
+
+    private PointerReference(@NotNull SmartPointerEx pointer, @Nullable ReferenceQueue<SmartPointerEx> queue) {
+      super(pointer, queue);
+      myHash = System.identityHashCode(pointer);
+    }
+  }
+}
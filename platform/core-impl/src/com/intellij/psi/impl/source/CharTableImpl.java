@@ -32,6 +32,8 @@ import java.lang.reflect.Modifier;
  */
 public class CharTableImpl implements CharTable {
   private static final int INTERN_THRESHOLD = 40; // 40 or more characters long tokens won't be interned.
+  // Longer white space tokens are mostly repeated indentation of deeply nested code, so they are interned up to this length.
+  private static final int WHITE_SPACE_INTERN_THRESHOLD = 128;
 
   private static final StringHashToCharSequencesMap STATIC_ENTRIES = newStaticSet();
   private final StringHashToCharSequencesMap entries = new StringHashToCharSequencesMap(10, 0.9f);
@@ -40,7 +42,7 @@ public class CharTableImpl implements CharTable {
   @Override
   public CharSequence intern(@NotNull final CharSequence text) {
     CharSequence result;
-    if (text.length() > INTERN_THRESHOLD) result = createSequence(text);
+    if (!shouldIntern(text, 0, text.length())) result = createSequence(text);
     else result = doIntern(text);
 
     return result;
@@ -70,12 +72,23 @@ public class CharTableImpl implements CharTable {
   public CharSequence intern(@NotNull final CharSequence baseText, final int startOffset, final int endOffset) {
     CharSequence result;
     if (endOffset - startOffset == baseText.length()) result = intern(baseText);
-    else if (endOffset - startOffset > INTERN_THRESHOLD) result = createSequence(baseText, startOffset, endOffset);
+    else if (!shouldIntern(baseText, startOffset, endOffset)) result = createSequence(baseText, startOffset, endOffset);
     else result = doIntern(baseText, startOffset, endOffset);
 
     return result;
   }
 
+  private static boolean shouldIntern(@NotNull CharSequence text, int startOffset, int endOffset) {
+    int length = endOffset - startOffset;
+    if (length <= INTERN_THRESHOLD) return true;
+    if (length > WHITE_SPACE_INTERN_THRESHOLD) return false;
+    for (int i = startOffset; i < endOffset; i++) {
+      char c = text.charAt(i);
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\r') return false;
+    }
+    return true;
+  }
+
   @NotNull
   private static String createSequence(@NotNull CharSequence text) {
     return createSequence(text, 0, text.length());
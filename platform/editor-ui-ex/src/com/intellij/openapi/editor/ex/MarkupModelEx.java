@@ -73,4 +73,8 @@ public interface MarkupModelEx extends MarkupModel {
   void changeAttributesInBatch(@NotNull RangeHighlighterEx highlighter, @NotNull Consumer<RangeHighlighterEx> changeAttributesAction);
 
   boolean sweep(int start, int end, @NotNull final SweepProcessor<RangeHighlighterEx> sweepProcessor);
+
+  // runs the action which adds, changes or removes many highlighters;
+  // listeners implementing MarkupModelBatchListener are notified once before and once after the batch
+  void runInBatchMode(@NotNull Runnable runnable);
 }
@@ -52,6 +52,9 @@ public class LexerEditorHighlighter implements EditorHighlighter, PrioritizedDoc
   private final SyntaxHighlighter myHighlighter;
   private EditorColorsScheme myScheme;
   private final int myInitialState;
+  private Snapshot mySnapshotToRestore;
+  // document modification stamp the segments are up to date with
+  private long myTextStamp = -1;
 
   public LexerEditorHighlighter(@NotNull SyntaxHighlighter highlighter, @NotNull EditorColorsScheme scheme) {
     myScheme = scheme;
@@ -141,6 +144,7 @@ public class LexerEditorHighlighter implements EditorHighlighter, PrioritizedDoc
   @Override
   public synchronized void documentChanged(DocumentEvent e) {
     final Document document = e.getDocument();
+    myTextStamp = -1;
 
     if (document instanceof DocumentEx && ((DocumentEx)document).isInBulkUpdate()) {
       mySegments.removeAll();
@@ -259,6 +263,7 @@ public class LexerEditorHighlighter implements EditorHighlighter, PrioritizedDoc
     }
     mySegments.shiftSegments(oldEndIndex, shift);
     mySegments.replace(startIndex, oldEndIndex, insertSegments);
+    myTextStamp = document.getModificationStamp();
 
     if (insertSegmentCount == 0 ||
         oldEndIndex == startIndex + 1 && insertSegmentCount == 1 && data == mySegments.getSegmentData(startIndex)) {
@@ -294,6 +299,83 @@ public class LexerEditorHighlighter implements EditorHighlighter, PrioritizedDoc
     }
   }
 
+  /**
+   * Sets the text reusing lexing results from the given snapshot if it was taken for the same text by a highlighter
+   * with the same lexer, see {@link #createSnapshot()}.
+   */
+  public void setText(@NotNull CharSequence text, @Nullable Snapshot snapshot) {
+    synchronized (this) {
+      mySnapshotToRestore = snapshot != null && isCompatible(snapshot) && snapshot.myTextLength == text.length() ? snapshot : null;
+      try {
+        setText(text);
+      }
+      finally {
+        mySnapshotToRestore = null;
+      }
+    }
+  }
+
+  /**
+   * @return copy of the current lexing results or <code>null</code> if they are not up to date with the document text
+   *         (e.g. the document is in bulk update mode)
+   */
+  @Nullable
+  public synchronized Snapshot createSnapshot() {
+    final Document document = getDocument();
+    int count = mySegments.getSegmentCount();
+    if (document == null || count == 0 || document instanceof DocumentEx && ((DocumentEx)document).isInBulkUpdate()) return null;
+    if (myTextStamp != document.getModificationStamp() || mySegments.getSegmentEnd(count - 1) != document.getTextLength()) return null;
+
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    short[] data = new short[count];
+    for (int i = 0; i < count; i++) {
+      starts[i] = mySegments.getSegmentStart(i);
+      ends[i] = mySegments.getSegmentEnd(i);
+      data[i] = mySegments.getSegmentData(i);
+    }
+    return new Snapshot(this, document.getTextLength(), starts, ends, data);
+  }
+
+  public boolean isCompatible(@NotNull Snapshot snapshot) {
+    return snapshot.myHighlighterClass == getClass() &&
+           snapshot.mySyntaxHighlighterClass == myHighlighter.getClass() &&
+           snapshot.myLexerClass == myLexer.getClass() &&
+           snapshot.myInitialState == myInitialState;
+  }
+
+  /**
+   * Immutable copy of lexing results which allows to initialize another highlighter for the same text without re-lexing.
+   */
+  public static final class Snapshot {
+    private final Class myHighlighterClass;
+    private final Class mySyntaxHighlighterClass;
+    private final Class myLexerClass;
+    private final int myInitialState;
+    private final int myTextLength;
+    private final int[] myStarts;
+    private final int[] myEnds;
+    private final short[] myData;
+
+    private Snapshot(@NotNull LexerEditorHighlighter highlighter, int textLength, @NotNull int[] starts, @NotNull int[] ends, @NotNull short[] data) {
+      myHighlighterClass = highlighter.getClass();
+      mySyntaxHighlighterClass = highlighter.myHighlighter.getClass();
+      myLexerClass = highlighter.myLexer.getClass();
+      myInitialState = highlighter.myInitialState;
+      myTextLength = textLength;
+      myStarts = starts;
+      myEnds = ends;
+      myData = data;
+    }
+
+    /**
+     * @return approximate number of bytes occupied by the snapshot arrays
+     */
+    public int getMemorySize() {
+      return myStarts.length * (4 + 4 + 2);
+    }
+  }
+
   protected class TokenProcessor {
     public void addToken(final int i, final int startOffset, final int endOffset, final int data, final IElementType tokenType) {
       mySegments.setElementAt(i, startOffset, endOffset, data);
@@ -305,19 +387,31 @@ public class LexerEditorHighlighter implements EditorHighlighter, PrioritizedDoc
 
   private void doSetText(final CharSequence text) {
     final TokenProcessor processor = createTokenProcessor(0);
-    myLexer.start(text, 0, text.length(),myInitialState);
     mySegments.removeAll();
-    int i = 0;
-    while (true) {
-      final IElementType tokenType = myLexer.getTokenType();
-      if (tokenType == null) break;
-
-      int data = packData(tokenType, myLexer.getState());
-      processor.addToken(i, myLexer.getTokenStart(), myLexer.getTokenEnd(), data, tokenType);
-      i++;
-      myLexer.advance();
+    Snapshot snapshot = mySnapshotToRestore;
+    mySnapshotToRestore = null;
+    if (snapshot != null && snapshot.myTextLength == text.length()) {
+      for (int i = 0; i < snapshot.myData.length; i++) {
+        short data = snapshot.myData[i];
+        processor.addToken(i, snapshot.myStarts[i], snapshot.myEnds[i], data, unpackToken(data));
+      }
+    }
+    else {
+      myLexer.start(text, 0, text.length(), myInitialState);
+      int i = 0;
+      while (true) {
+        final IElementType tokenType = myLexer.getTokenType();
+        if (tokenType == null) break;
+
+        int data = packData(tokenType, myLexer.getState());
+        processor.addToken(i, myLexer.getTokenStart(), myLexer.getTokenEnd(), data, tokenType);
+        i++;
+        myLexer.advance();
+      }
     }
     processor.finish();
+    final Document document = getDocument();
+    myTextStamp = document != null && document.getTextLength() == text.length() ? document.getModificationStamp() : -1;
 
     if(myEditor != null && !ApplicationManager.getApplication().isHeadlessEnvironment()) {
       UIUtil.invokeLaterIfNeeded(new DumbAwareRunnable() {
@@ -29,6 +29,7 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.ex.*;
+import com.intellij.openapi.editor.impl.event.MarkupModelBatchListener;
 import com.intellij.openapi.editor.impl.event.MarkupModelListener;
 import com.intellij.openapi.editor.markup.HighlighterTargetArea;
 import com.intellij.openapi.editor.markup.RangeHighlighter;
@@ -52,6 +53,7 @@ public class MarkupModelImpl extends UserDataHolderBase implements MarkupModelEx
   private RangeHighlighter[] myCachedHighlighters;
   private final List<MarkupModelListener> myListeners = ContainerUtil.createLockFreeCopyOnWriteList();
   private final RangeHighlighterTree myHighlighterTree;
+  private int myBatchDepth;
 
   MarkupModelImpl(@NotNull DocumentEx document) {
     myDocument = document;
@@ -160,6 +162,30 @@ public class MarkupModelImpl extends UserDataHolderBase implements MarkupModelEx
     }
   }
 
+  @Override
+  public void runInBatchMode(@NotNull Runnable runnable) {
+    ApplicationManager.getApplication().assertIsDispatchThread();
+    if (myBatchDepth++ == 0) {
+      for (MarkupModelListener listener : myListeners) {
+        if (listener instanceof MarkupModelBatchListener) {
+          ((MarkupModelBatchListener)listener).batchUpdateStarted();
+        }
+      }
+    }
+    try {
+      runnable.run();
+    }
+    finally {
+      if (--myBatchDepth == 0) {
+        for (MarkupModelListener listener : myListeners) {
+          if (listener instanceof MarkupModelBatchListener) {
+            ((MarkupModelBatchListener)listener).batchUpdateFinished();
+          }
+        }
+      }
+    }
+  }
+
   @Override
   public void addRangeHighlighter(RangeHighlighterEx marker,
                                   int start,
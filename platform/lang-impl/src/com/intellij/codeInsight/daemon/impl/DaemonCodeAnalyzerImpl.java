@@ -515,6 +515,11 @@ public class DaemonCodeAnalyzerImpl extends DaemonCodeAnalyzerEx implements JDOM
     return myFileStatusMap;
   }
 
+  @NotNull
+  public PassLatencyStatistics getPassLatencyStatistics() {
+    return myPassExecutorService.getLatencyStatistics();
+  }
+
   synchronized boolean isRunning() {
     return myUpdateProgress != null && !myUpdateProgress.isCanceled();
   }
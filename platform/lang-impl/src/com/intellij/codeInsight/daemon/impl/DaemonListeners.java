@@ -108,6 +108,7 @@ public class DaemonListeners implements Disposable {
   private boolean myEscPressed;
 
   private volatile boolean cutOperationJustHappened;
+  private volatile long myProfileModificationCount;
   private final DaemonCodeAnalyzer.DaemonListener myDaemonEventPublisher;
 
   private static final Key<Boolean> DAEMON_INITIALIZED = Key.create("DAEMON_INITIALIZED");
@@ -489,14 +490,23 @@ public class DaemonListeners implements Disposable {
     }
   }
 
+  /**
+   * @return the number of inspection profile changes and activations, so that cached inspection results can be checked against it
+   */
+  public long getProfileModificationCount() {
+    return myProfileModificationCount;
+  }
+
   private class MyProfileChangeListener extends ProfileChangeAdapter {
     @Override
     public void profileChanged(Profile profile) {
+      myProfileModificationCount++;
       stopDaemonAndRestartAllFiles();
     }
 
     @Override
     public void profileActivated(@NotNull Profile oldProfile, Profile profile) {
+      myProfileModificationCount++;
       stopDaemonAndRestartAllFiles();
     }
 
@@ -37,6 +37,7 @@ import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.*;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.tree.injected.InjectedLanguageManagerImpl;
 import com.intellij.psi.impl.source.tree.injected.InjectedLanguageUtil;
 import com.intellij.psi.impl.source.tree.injected.Place;
 import com.intellij.psi.tree.IElementType;
@@ -162,8 +163,13 @@ public class InjectedGeneralHighlightingPass extends GeneralHighlightingPass imp
         hosts.add(context);
       }
     }
-    hosts.addAll(elements1);
-    hosts.addAll(elements2);
+    // most elements can't be injection hosts themselves, don't probe them. Injected fragments found via their children
+    // are also found via the host itself, which is among the elements too
+    InjectedLanguageManager injectedLanguageManager = InjectedLanguageManager.getInstance(myProject);
+    final InjectedLanguageManagerImpl injectedManager =
+      injectedLanguageManager instanceof InjectedLanguageManagerImpl ? (InjectedLanguageManagerImpl)injectedLanguageManager : null;
+    addPossibleHosts(elements1, injectedManager, hosts);
+    addPossibleHosts(elements2, injectedManager, hosts);
 
     final PsiLanguageInjectionHost.InjectedPsiVisitor visitor = new PsiLanguageInjectionHost.InjectedPsiVisitor() {
       @Override
@@ -189,6 +195,16 @@ public class InjectedGeneralHighlightingPass extends GeneralHighlightingPass imp
     }
   }
 
+  private static void addPossibleHosts(@NotNull List<PsiElement> elements,
+                                       @Nullable InjectedLanguageManagerImpl injectedManager,
+                                       @NotNull Collection<PsiElement> hosts) {
+    for (PsiElement element : elements) {
+      if (injectedManager == null || injectedManager.mayHaveInPlaceInjectors(element)) {
+        hosts.add(element);
+      }
+    }
+  }
+
   // returns false if canceled
   private boolean addInjectedPsiHighlights(@NotNull final Set<PsiFile> injectedFiles,
                                            @NotNull final ProgressIndicator progress,
@@ -45,6 +45,7 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.*;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
@@ -52,6 +53,7 @@ import com.intellij.profile.codeInspection.InspectionProjectProfileManagerImpl;
 import com.intellij.profile.codeInspection.SeverityProvider;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.tree.injected.InjectedLanguageUtil;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.ConcurrencyUtil;
 import com.intellij.util.Function;
 import com.intellij.util.Processor;
@@ -87,6 +89,7 @@ public class LocalInspectionsPass extends ProgressableTextEditorHighlightingPass
   private final boolean myIgnoreSuppressed;
   private final ConcurrentMap<PsiFile, List<InspectionResult>> result = new ConcurrentHashMap<PsiFile, List<InspectionResult>>();
   private static final String PRESENTABLE_NAME = DaemonBundle.message("pass.inspection");
+  private static final Key<InjectedInspectionResults> INJECTED_RESULTS_KEY = Key.create("LOCAL_INSPECTIONS_INJECTED_RESULTS");
   private volatile List<HighlightInfo> myInfos = Collections.emptyList();
   private final String myShortcutText;
   private final SeverityRegistrar mySeverityRegistrar;
@@ -716,6 +719,10 @@ public class LocalInspectionsPass extends ProgressableTextEditorHighlightingPass
     }
     MultiMap<LocalInspectionToolWrapper, String> toolToLanguages =
       getToolsForElements(wrappers, checkDumbAwareness, elements, Collections.<PsiElement>emptyList());
+    // injected fragment which text hasn't changed since the last on-the-fly run doesn't need to be re-inspected,
+    // e.g. when typing in the host code around a string literal with injection
+    InjectedInspectionResults cached = isOnTheFly ? getCachedInjectedResults(injectedPsi, myProfileWrapper) : null;
+    Map<LocalInspectionToolWrapper, List<ProblemDescriptor>> toolToProblems = new THashMap<LocalInspectionToolWrapper, List<ProblemDescriptor>>();
     for (final Map.Entry<LocalInspectionToolWrapper, Collection<String>> pair : toolToLanguages.entrySet()) {
       indicator.checkCanceled();
       final LocalInspectionToolWrapper wrapper = pair.getKey();
@@ -723,25 +730,57 @@ public class LocalInspectionsPass extends ProgressableTextEditorHighlightingPass
       if (host != null && myIgnoreSuppressed && SuppressionUtil.inspectionResultSuppressed(host, tool)) {
         continue;
       }
-      ProblemsHolder holder = new ProblemsHolder(iManager, injectedPsi, isOnTheFly) {
-        @Override
-        public void registerProblem(@NotNull ProblemDescriptor descriptor) {
-          super.registerProblem(descriptor);
-          if (isOnTheFly && inVisibleRange) {
+      List<ProblemDescriptor> problems = cached == null ? null : cached.toolToProblems.get(wrapper);
+      if (problems != null) {
+        if (isOnTheFly && inVisibleRange) {
+          for (ProblemDescriptor descriptor : problems) {
             addDescriptorIncrementally(descriptor, wrapper, indicator);
           }
         }
-      };
+      }
+      else {
+        ProblemsHolder holder = new ProblemsHolder(iManager, injectedPsi, isOnTheFly) {
+          @Override
+          public void registerProblem(@NotNull ProblemDescriptor descriptor) {
+            super.registerProblem(descriptor);
+            if (isOnTheFly && inVisibleRange) {
+              addDescriptorIncrementally(descriptor, wrapper, indicator);
+            }
+          }
+        };
 
-      LocalInspectionToolSession injSession = new LocalInspectionToolSession(injectedPsi, 0, injectedPsi.getTextLength());
-      Collection<String> languages = pair.getValue();
-      InspectionEngine.createVisitorAndAcceptElements(tool, holder, isOnTheFly, injSession, elements, languages);
-      tool.inspectionFinished(injSession, holder);
-      List<ProblemDescriptor> problems = holder.getResults();
+        LocalInspectionToolSession injSession = new LocalInspectionToolSession(injectedPsi, 0, injectedPsi.getTextLength());
+        Collection<String> languages = pair.getValue();
+        InspectionEngine.createVisitorAndAcceptElements(tool, holder, isOnTheFly, injSession, elements, languages);
+        tool.inspectionFinished(injSession, holder);
+        problems = holder.getResults();
+      }
+      toolToProblems.put(wrapper, problems);
       if (!problems.isEmpty()) {
         appendDescriptors(injectedPsi, problems, wrapper);
       }
     }
+    if (isOnTheFly) {
+      if (cached != null) {
+        // keep results of the tools suppressed at the moment in case the suppression is removed
+        for (Map.Entry<LocalInspectionToolWrapper, List<ProblemDescriptor>> entry : cached.toolToProblems.entrySet()) {
+          if (!toolToProblems.containsKey(entry.getKey())) {
+            toolToProblems.put(entry.getKey(), entry.getValue());
+          }
+        }
+      }
+      injectedPsi.putUserData(INJECTED_RESULTS_KEY, new InjectedInspectionResults(injectedPsi, myProfileWrapper, toolToProblems));
+    }
+  }
+
+  @Nullable
+  private static InjectedInspectionResults getCachedInjectedResults(@NotNull PsiFile injectedPsi,
+                                                                    @NotNull InspectionProfileWrapper profile) {
+    InjectedInspectionResults cached = injectedPsi.getUserData(INJECTED_RESULTS_KEY);
+    if (cached == null || !cached.isUpToDate(injectedPsi, profile)) {
+      return null;
+    }
+    return cached;
   }
 
   @Override
@@ -760,6 +799,51 @@ public class LocalInspectionsPass extends ProgressableTextEditorHighlightingPass
     }
   }
 
+  private static class InjectedInspectionResults {
+    @NotNull private final String text;
+    private final long outOfCodeBlockModificationCount;
+    @NotNull private final InspectionProfile profile;
+    private final long profileModificationCount;
+    @NotNull private final Map<LocalInspectionToolWrapper, List<ProblemDescriptor>> toolToProblems;
+
+    private InjectedInspectionResults(@NotNull PsiFile injectedPsi,
+                                      @NotNull InspectionProfileWrapper profileWrapper,
+                                      @NotNull Map<LocalInspectionToolWrapper, List<ProblemDescriptor>> toolToProblems) {
+      text = injectedPsi.getViewProvider().getContents().toString();
+      outOfCodeBlockModificationCount = PsiModificationTracker.SERVICE.getInstance(injectedPsi.getProject()).getOutOfCodeBlockModificationCount();
+      profile = profileWrapper.getInspectionProfile();
+      profileModificationCount = getProfileModificationCount(injectedPsi.getProject());
+      this.toolToProblems = toolToProblems;
+    }
+
+    // results depend on the fragment text, on the declarations it may refer to and on the inspection profile and tool settings
+    private boolean isUpToDate(@NotNull PsiFile injectedPsi, @NotNull InspectionProfileWrapper profileWrapper) {
+      if (profile != profileWrapper.getInspectionProfile() ||
+          profileModificationCount != getProfileModificationCount(injectedPsi.getProject())) {
+        return false;
+      }
+      if (outOfCodeBlockModificationCount !=
+          PsiModificationTracker.SERVICE.getInstance(injectedPsi.getProject()).getOutOfCodeBlockModificationCount()) {
+        return false;
+      }
+      if (!StringUtil.equals(text, injectedPsi.getViewProvider().getContents())) {
+        return false;
+      }
+      for (List<ProblemDescriptor> descriptors : toolToProblems.values()) {
+        for (ProblemDescriptor descriptor : descriptors) {
+          PsiElement element = descriptor.getPsiElement();
+          if (element == null || !element.isValid()) return false;
+        }
+      }
+      return true;
+    }
+
+    private static long getProfileModificationCount(@NotNull Project project) {
+      DaemonListeners listeners = DaemonListeners.getInstance(project);
+      return listeners == null ? 0 : listeners.getProfileModificationCount();
+    }
+  }
+
   private static class InspectionContext {
     private InspectionContext(@NotNull LocalInspectionToolWrapper tool,
                               @NotNull ProblemsHolder holder,
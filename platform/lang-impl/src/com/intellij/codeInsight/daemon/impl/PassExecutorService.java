@@ -18,6 +18,7 @@ package com.intellij.codeInsight.daemon.impl;
 
 import com.intellij.codeHighlighting.EditorBoundHighlightingPass;
 import com.intellij.codeHighlighting.HighlightingPass;
+import com.intellij.codeHighlighting.Pass;
 import com.intellij.codeHighlighting.TextEditorHighlightingPass;
 import com.intellij.concurrency.Job;
 import com.intellij.concurrency.JobLauncher;
@@ -66,10 +67,23 @@ public class PassExecutorService implements Disposable {
   private static final Logger LOG = Logger.getInstance("#com.intellij.codeInsight.daemon.impl.PassExecutorService");
   private static final boolean CHECK_CONSISTENCY = ApplicationManager.getApplication().isUnitTestMode();
 
+  // the lower the rank the earlier the free pass is submitted
+  private static final int FOCUSED_EDITOR_VISIBLE_PASS_RANK = 0;
+  private static final int FOCUSED_EDITOR_RANK = 1;
+  private static final int SHOWING_EDITOR_RANK = 2;
+  private static final int OTHER_EDITOR_RANK = 3;
+  private static final Comparator<ScheduledPass> RANK_COMPARATOR = new Comparator<ScheduledPass>() {
+    @Override
+    public int compare(ScheduledPass o1, ScheduledPass o2) {
+      return o1.myRank - o2.myRank;
+    }
+  };
+
   private final Map<ScheduledPass, Job<Void>> mySubmittedPasses = new ConcurrentHashMap<ScheduledPass, Job<Void>>();
   private final Project myProject;
   protected volatile boolean isDisposed;
   private final AtomicInteger nextPassId = new AtomicInteger(100);
+  private final PassLatencyStatistics myLatencyStatistics = new PassLatencyStatistics();
 
   public PassExecutorService(@NotNull Project project) {
     myProject = project;
@@ -178,6 +192,8 @@ public class PassExecutorService implements Disposable {
     for (ScheduledPass dependentPass : dependentPasses) {
       mySubmittedPasses.put(dependentPass, Job.NULL_JOB);
     }
+    // the job pool runs tasks roughly in submission order, so the focused editor and the visible area are highlighted first
+    Collections.sort(freePasses, RANK_COMPARATOR);
     for (ScheduledPass freePass : freePasses) {
       submit(freePass);
     }
@@ -278,7 +294,7 @@ public class PassExecutorService implements Disposable {
     Pair<FileEditor, Integer> key = Pair.create(fileEditor, passId);
     ScheduledPass scheduledPass = toBeSubmitted.get(key);
     if (scheduledPass != null) return scheduledPass;
-    scheduledPass = new ScheduledPass(fileEditor, pass, updateProgress, threadsToStartCountdown);
+    scheduledPass = new ScheduledPass(fileEditor, pass, getRank(fileEditor, pass), updateProgress, threadsToStartCountdown);
     threadsToStartCountdown.incrementAndGet();
     toBeSubmitted.put(key, scheduledPass);
     for (int predecessorId : pass.getCompletionPredecessorIds()) {
@@ -315,6 +331,16 @@ public class PassExecutorService implements Disposable {
     return scheduledPass;
   }
 
+  private int getRank(@NotNull FileEditor fileEditor, @NotNull TextEditorHighlightingPass pass) {
+    if (fileEditor instanceof TextEditor) {
+      Editor editor = ((TextEditor)fileEditor).getEditor();
+      if (editor == FileEditorManager.getInstance(myProject).getSelectedTextEditor()) {
+        return pass.getId() == Pass.VISIBLE_LINE_MARKERS ? FOCUSED_EDITOR_VISIBLE_PASS_RANK : FOCUSED_EDITOR_RANK;
+      }
+    }
+    return fileEditor.getComponent().isShowing() ? SHOWING_EDITOR_RANK : OTHER_EDITOR_RANK;
+  }
+
   private ScheduledPass findOrCreatePredecessorPass(@NotNull FileEditor fileEditor,
                                                     @NotNull Map<Pair<FileEditor, Integer>, ScheduledPass> toBeSubmitted,
                                                     @NotNull List<TextEditorHighlightingPass> textEditorHighlightingPasses,
@@ -368,6 +394,7 @@ public class PassExecutorService implements Disposable {
   private class ScheduledPass implements Runnable {
     private final FileEditor myFileEditor;
     private final TextEditorHighlightingPass myPass;
+    private final int myRank;
     private final AtomicInteger myThreadsToStartCountdown;
     private final AtomicInteger myRunningPredecessorsCount = new AtomicInteger(0);
     private final Collection<ScheduledPass> mySuccessorsOnCompletion = new ArrayList<ScheduledPass>();
@@ -376,10 +403,12 @@ public class PassExecutorService implements Disposable {
 
     private ScheduledPass(@NotNull FileEditor fileEditor,
                           @NotNull TextEditorHighlightingPass pass,
+                          int rank,
                           @NotNull DaemonProgressIndicator progressIndicator,
                           @NotNull AtomicInteger threadsToStartCountdown) {
       myFileEditor = fileEditor;
       myPass = pass;
+      myRank = rank;
       myThreadsToStartCountdown = threadsToStartCountdown;
       myUpdateProgress = progressIndicator;
     }
@@ -411,6 +440,7 @@ public class PassExecutorService implements Disposable {
         }
       }
 
+      long start = System.nanoTime();
       ProgressManager.getInstance().executeProcessUnderProgress(new Runnable() {
         @Override
         public void run() {
@@ -455,6 +485,7 @@ public class PassExecutorService implements Disposable {
       log(myUpdateProgress, myPass, "Finished. ");
 
       if (!myUpdateProgress.isCanceled()) {
+        myLatencyStatistics.record(myPass, System.nanoTime() - start);
         applyInformationToEditorsLater(myFileEditor, myPass, myUpdateProgress, myThreadsToStartCountdown);
         for (ScheduledPass successor : mySuccessorsOnCompletion) {
           int predecessorsToRun = successor.myRunningPredecessorsCount.decrementAndGet();
@@ -508,6 +539,9 @@ public class PassExecutorService implements Disposable {
         }
         if (threadsToStartCountdown.decrementAndGet() == 0) {
           log(updateProgress, pass, "Stopping ");
+          if (LOG.isDebugEnabled()) {
+            LOG.debug(myLatencyStatistics.toString());
+          }
           updateProgress.stopIfRunning();
         }
         else {
@@ -521,6 +555,11 @@ public class PassExecutorService implements Disposable {
     return isDisposed;
   }
 
+  @NotNull
+  public PassLatencyStatistics getLatencyStatistics() {
+    return myLatencyStatistics;
+  }
+
   @NotNull
   public List<TextEditorHighlightingPass> getAllSubmittedPasses() {
     List<TextEditorHighlightingPass> result = new ArrayList<TextEditorHighlightingPass>(mySubmittedPasses.size());
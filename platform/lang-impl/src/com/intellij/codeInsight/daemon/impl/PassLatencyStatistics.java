@@ -0,0 +1,113 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.codeInsight.daemon.impl;
+
+import com.intellij.codeHighlighting.TextEditorHighlightingPass;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects {@link TextEditorHighlightingPass#collectInformation(com.intellij.openapi.progress.ProgressIndicator)} latencies
+ * per pass class in order to be able to find slow highlighters.
+ * <p/>
+ * Only the last {@link #SAMPLES_PER_PASS} samples are kept for every pass class. Thread-safe.
+ */
+public class PassLatencyStatistics {
+  private static final int SAMPLES_PER_PASS = 256;
+
+  private final Map<String, Samples> myPassToSamples = new THashMap<String, Samples>();
+
+  public void record(@NotNull TextEditorHighlightingPass pass, long nanos) {
+    String name = getPassName(pass);
+    synchronized (myPassToSamples) {
+      Samples samples = myPassToSamples.get(name);
+      if (samples == null) {
+        samples = new Samples();
+        myPassToSamples.put(name, samples);
+      }
+      samples.add(nanos);
+    }
+  }
+
+  /**
+   * @param passName    pass class name as returned by {@link #getPassNames()}
+   * @param percentile  percentile to calculate, from <code>(0; 100]</code> range
+   * @return            latency in milliseconds which is not exceeded by the given percentile of recorded pass runs;
+   *                    <code>-1</code> if nothing was recorded for the given pass
+   */
+  public long getPercentileMs(@NotNull String passName, double percentile) {
+    long[] sorted;
+    synchronized (myPassToSamples) {
+      Samples samples = myPassToSamples.get(passName);
+      if (samples == null || samples.myCount == 0) return -1;
+      sorted = Arrays.copyOf(samples.myNanos, samples.myCount);
+    }
+    Arrays.sort(sorted);
+    int index = (int)Math.ceil(percentile / 100 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000000;
+  }
+
+  @NotNull
+  public List<String> getPassNames() {
+    synchronized (myPassToSamples) {
+      return new ArrayList<String>(myPassToSamples.keySet());
+    }
+  }
+
+  public void clear() {
+    synchronized (myPassToSamples) {
+      myPassToSamples.clear();
+    }
+  }
+
+  @NotNull
+  private static String getPassName(@NotNull TextEditorHighlightingPass pass) {
+    Class<? extends TextEditorHighlightingPass> aClass = pass.getClass();
+    String name = aClass.getName();
+    return aClass.isAnonymousClass() && aClass.getSuperclass() != null ? aClass.getSuperclass().getName() : name;
+  }
+
+  @NonNls
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("Highlighting pass latencies (p50/p90/p99, ms):");
+    for (String name : getPassNames()) {
+      result.append("\n  ").append(name).append(": ")
+        .append(getPercentileMs(name, 50)).append('/')
+        .append(getPercentileMs(name, 90)).append('/')
+        .append(getPercentileMs(name, 99));
+    }
+    return result.toString();
+  }
+
+  private static class Samples {
+    private final long[] myNanos = new long[SAMPLES_PER_PASS];
+    private int myCount;
+    private int myNext;
+
+    private void add(long nanos) {
+      myNanos[myNext] = nanos;
+      myNext = (myNext + 1) % myNanos.length;
+      myCount = Math.min(myCount + 1, myNanos.length);
+    }
+  }
+}
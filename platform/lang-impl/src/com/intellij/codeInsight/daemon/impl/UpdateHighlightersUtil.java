@@ -201,37 +201,42 @@ public class UpdateHighlightersUtil {
 
     final Map<TextRange, RangeMarker> ranges2markersCache = new THashMap<TextRange, RangeMarker>(10);
     final boolean[] changed = {false};
-    RangeMarkerTree.sweep(new RangeMarkerTree.Generator<HighlightInfo>(){
-                            @Override
-                            public boolean generateInStartOffsetOrder(@NotNull Processor<HighlightInfo> processor) {
-                              return ContainerUtil.process(infos, processor);
-                            }
-                          }, new SweepProcessor<HighlightInfo>() {
-                            @Override
-                            public boolean process(int offset, @NotNull HighlightInfo info, boolean atStart, @NotNull Collection<HighlightInfo> overlappingIntervals) {
-                              if (!atStart) return true;
-                              if (!info.isFromInjection() && info.getEndOffset() < document.getTextLength() && (info.getEndOffset() <= startOffset || info.getStartOffset()>=endOffset)) return true; // injections are oblivious to restricting range
-
-                              if (info.isFileLevelAnnotation() && psiFile.getViewProvider().isPhysical()) {
-                                codeAnalyzer.addFileLevelHighlight(project, group, info, psiFile);
-                                changed[0] = true;
-                                return true;
-                              }
-                              if (isWarningCoveredByError(info, overlappingIntervals, severityRegistrar)) {
-                                return true;
-                              }
-                              if (info.getStartOffset() < priorityRange.getStartOffset() || info.getEndOffset() > priorityRange.getEndOffset()) {
-                                createOrReuseHighlighterFor(info, colorsScheme, document, group, psiFile, (MarkupModelEx)markup, infosToRemove,
-                                                            ranges2markersCache, severityRegistrar);
-                                changed[0] = true;
-                              }
-                              return true;
-                            }
-                          });
-    for (RangeHighlighter highlighter : infosToRemove.forAllInGarbageBin()) {
-      highlighter.dispose();
-      changed[0] = true;
-    }
+    ((MarkupModelEx)markup).runInBatchMode(new Runnable() {
+      @Override
+      public void run() {
+        RangeMarkerTree.sweep(new RangeMarkerTree.Generator<HighlightInfo>(){
+                                @Override
+                                public boolean generateInStartOffsetOrder(@NotNull Processor<HighlightInfo> processor) {
+                                  return ContainerUtil.process(infos, processor);
+                                }
+                              }, new SweepProcessor<HighlightInfo>() {
+                                @Override
+                                public boolean process(int offset, @NotNull HighlightInfo info, boolean atStart, @NotNull Collection<HighlightInfo> overlappingIntervals) {
+                                  if (!atStart) return true;
+                                  if (!info.isFromInjection() && info.getEndOffset() < document.getTextLength() && (info.getEndOffset() <= startOffset || info.getStartOffset()>=endOffset)) return true; // injections are oblivious to restricting range
+
+                                  if (info.isFileLevelAnnotation() && psiFile.getViewProvider().isPhysical()) {
+                                    codeAnalyzer.addFileLevelHighlight(project, group, info, psiFile);
+                                    changed[0] = true;
+                                    return true;
+                                  }
+                                  if (isWarningCoveredByError(info, overlappingIntervals, severityRegistrar)) {
+                                    return true;
+                                  }
+                                  if (info.getStartOffset() < priorityRange.getStartOffset() || info.getEndOffset() > priorityRange.getEndOffset()) {
+                                    createOrReuseHighlighterFor(info, colorsScheme, document, group, psiFile, (MarkupModelEx)markup, infosToRemove,
+                                                                ranges2markersCache, severityRegistrar);
+                                    changed[0] = true;
+                                  }
+                                  return true;
+                                }
+                              });
+        for (RangeHighlighter highlighter : infosToRemove.forAllInGarbageBin()) {
+          highlighter.dispose();
+          changed[0] = true;
+        }
+      }
+    });
 
     if (changed[0]) {
       clearWhiteSpaceOptimizationFlag(document);
@@ -274,36 +279,41 @@ public class UpdateHighlightersUtil {
     final PsiFile psiFile = PsiDocumentManager.getInstance(project).getPsiFile(document);
     final DaemonCodeAnalyzerEx codeAnalyzer = DaemonCodeAnalyzerEx.getInstanceEx(project);
     final boolean[] changed = {false};
-    RangeMarkerTree.sweep(new RangeMarkerTree.Generator<HighlightInfo>(){
-                            @Override
-                            public boolean generateInStartOffsetOrder(@NotNull final Processor<HighlightInfo> processor) {
-                              return ContainerUtil.process(infos, processor);
-                            }
-                          }, new SweepProcessor<HighlightInfo>() {
-                            @Override
-                            public boolean process(int offset, @NotNull HighlightInfo info, boolean atStart, @NotNull Collection<HighlightInfo> overlappingIntervals) {
-                              if (!atStart) {
-                                return true;
-                              }
-                              if (info.isFileLevelAnnotation() && psiFile != null && psiFile.getViewProvider().isPhysical()) {
-                                codeAnalyzer.addFileLevelHighlight(project, group, info, psiFile);
-                                changed[0] = true;
-                                return true;
-                              }
-                              if (isWarningCoveredByError(info, overlappingIntervals, severityRegistrar)) {
-                                return true;
-                              }
-                              if (info.getStartOffset() >= range.getStartOffset() && info.getEndOffset() <= range.getEndOffset() && psiFile != null) {
-                                createOrReuseHighlighterFor(info, colorsScheme, document, group, psiFile, markup, infosToRemove, ranges2markersCache, severityRegistrar);
-                                changed[0] = true;
-                              }
-                              return true;
-                            }
-                          });
-    for (RangeHighlighter highlighter : infosToRemove.forAllInGarbageBin()) {
-      highlighter.dispose();
-      changed[0] = true;
-    }
+    markup.runInBatchMode(new Runnable() {
+      @Override
+      public void run() {
+        RangeMarkerTree.sweep(new RangeMarkerTree.Generator<HighlightInfo>(){
+                                @Override
+                                public boolean generateInStartOffsetOrder(@NotNull final Processor<HighlightInfo> processor) {
+                                  return ContainerUtil.process(infos, processor);
+                                }
+                              }, new SweepProcessor<HighlightInfo>() {
+                                @Override
+                                public boolean process(int offset, @NotNull HighlightInfo info, boolean atStart, @NotNull Collection<HighlightInfo> overlappingIntervals) {
+                                  if (!atStart) {
+                                    return true;
+                                  }
+                                  if (info.isFileLevelAnnotation() && psiFile != null && psiFile.getViewProvider().isPhysical()) {
+                                    codeAnalyzer.addFileLevelHighlight(project, group, info, psiFile);
+                                    changed[0] = true;
+                                    return true;
+                                  }
+                                  if (isWarningCoveredByError(info, overlappingIntervals, severityRegistrar)) {
+                                    return true;
+                                  }
+                                  if (info.getStartOffset() >= range.getStartOffset() && info.getEndOffset() <= range.getEndOffset() && psiFile != null) {
+                                    createOrReuseHighlighterFor(info, colorsScheme, document, group, psiFile, markup, infosToRemove, ranges2markersCache, severityRegistrar);
+                                    changed[0] = true;
+                                  }
+                                  return true;
+                                }
+                              });
+        for (RangeHighlighter highlighter : infosToRemove.forAllInGarbageBin()) {
+          highlighter.dispose();
+          changed[0] = true;
+        }
+      }
+    });
 
     if (changed[0]) {
       clearWhiteSpaceOptimizationFlag(document);
@@ -166,11 +166,26 @@ public abstract class AbstractBlockWrapper {
     return myParent;
   }
 
+  /**
+   * @return    the first element of {@link #getWraps()} if any; <code>null</code> otherwise. Doesn't build the whole list.
+   */
   @Nullable
   public WrapImpl getWrap() {
-    final ArrayList<WrapImpl> wraps = getWraps();
-    if (wraps.size() == 0) return null;
-    return wraps.get(0);
+    WrapImpl result = null;
+    for (AbstractBlockWrapper current = this; current != null && current.getStartOffset() == getStartOffset(); current = current.myParent) {
+      final WrapImpl wrap = current.getOwnWrap();
+      if (wrap == null) continue;
+      if (!isOwnWrapBelow(current, wrap)) result = wrap;
+      if (wrap.getIgnoreParentWraps()) break;
+    }
+    return result;
+  }
+
+  private boolean isOwnWrapBelow(@NotNull AbstractBlockWrapper ancestor, @NotNull WrapImpl wrap) {
+    for (AbstractBlockWrapper current = this; current != ancestor; current = current.myParent) {
+      if (wrap.equals(current.getOwnWrap())) return true;
+    }
+    return false;
   }
 
   /**
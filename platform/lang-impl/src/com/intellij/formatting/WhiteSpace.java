@@ -279,7 +279,7 @@ class WhiteSpace {
    * Tries to apply given values to {@link #getSpaces() spaces} and {@link #getIndentSpaces() indentSpaces} properties accordingly.
    * <p/>
    * The action is not guaranteed to be executed (i.e. the it's not guaranteed that target properties return given values after
-   * this method call - see {@link #performModification(Runnable)} for more details).
+   * this method call - see {@link #afterModification(int)} for more details).
    * <p/>
    * Moreover, the action is guaranteed to be <b>not</b> executed  if {@link #isKeepFirstColumn() keepFirstColumn} property
    * is unset and target document string doesn't contain spaces.
@@ -288,15 +288,13 @@ class WhiteSpace {
    * @param indent      new value for the {@link #getIndentSpaces()}  indentSpaces} property
    */
   public void setSpaces(final int spaces, final int indent) {
-    performModification(new Runnable() {
-      @Override
-      public void run() {
-        if (!isKeepFirstColumn() || (myFlags & CONTAINS_SPACES_INITIALLY) != 0) {
-          mySpaces = spaces;
-          myIndentSpaces = indent;
-        }
-      }
-    });
+    final int stateBefore = beforeModification();
+    if (stateBefore < 0) return;
+    if (!isKeepFirstColumn() || (myFlags & CONTAINS_SPACES_INITIALLY) != 0) {
+      mySpaces = spaces;
+      myIndentSpaces = indent;
+    }
+    afterModification(stateBefore);
   }
 
   private boolean doesNotContainAnySpaces() {
@@ -312,45 +310,58 @@ class WhiteSpace {
   }
 
   /**
-   * Execute given action in a safe manner.
+   * Starts modification of the current object.
+   *
+   * @return    state of the object to pass to {@link #afterModification(int)} or <code>-1</code> if the object is
+   *            {@link #isIsReadOnly() read only} and shouldn't be modified
+   */
+  private int beforeModification() {
+    if (isIsReadOnly()) return -1;
+    return getLineFeeds() << 1 | (doesNotContainAnySpaces() ? 1 : 0);
+  }
+
+  /**
+   * Finishes modification of the current object in a safe manner. Every modification starts with
+   * {@link #beforeModification()} and calls this method afterwards.
    * <p/>
    * <code>'Safe manner'</code> here means the following:
    * <ul>
-   *   <li>don't execute the action if {@link #isIsReadOnly() isReadOnly} property value is set to <code>true</code>;</li>
    *   <li>
-   *        ensure that number of line feeds after action execution is preserved if line feeds are
+   *        ensure that number of line feeds after modification is preserved if line feeds are
    *        {@link #isLineFeedsAreReadOnly() read only};
    *   </li>
    *   <li>
    *        ensure the following if {@link #isIsSafe() isSafe} property is set to <code>true</code>:
    *        <ul>
    *          <li>
-   *            cut all white spaces and line feeds appeared after given action execution to single white space if there
+   *            cut all white spaces and line feeds appeared after the modification to single white space if there
    *            were no line feeds and white spaces before;
    *          </li>
    *        </ul>
    *    </li>
    * </ul>
+   * <p/>
+   * The modifications are inlined instead of being passed as <code>Runnable</code> objects, and the state before them
+   * is packed into an <code>int</code>, because they are performed for every white space during formatting.
    *
-   * @param action      action that should be performed in a safe manner
+   * @param stateBefore     {@link #beforeModification()} result, i.e. the number of line feeds and {@link #doesNotContainAnySpaces()}
+   *                        value before the modification
    */
-  private void performModification(Runnable action) {
-    if (isIsReadOnly()) return;
-    final boolean before = doesNotContainAnySpaces();
-    final int lineFeedsBefore = getLineFeeds();
-    action.run();
+  private void afterModification(int stateBefore) {
+    final boolean noSpacesBefore = (stateBefore & 1) != 0;
+    final int lineFeedsBefore = stateBefore >> 1;
     if (isLineFeedsAreReadOnly()) {
       setLineFeeds(lineFeedsBefore);
     }
     if (isIsSafe()) {
       final boolean after = doesNotContainAnySpaces();
-      if (before && !after) {
+      if (noSpacesBefore && !after) {
         // Actions below seem to be useless if 'after' value is 'false'. Are kept as historical heritage.
         mySpaces = 0;
         myIndentSpaces = 0;
         setLineFeeds(0);
       }
-      else if (!before && after) {
+      else if (!noSpacesBefore && after) {
         mySpaces = 1;
         myIndentSpaces = 0;
       }
@@ -368,21 +379,19 @@ class WhiteSpace {
    * @param spaceProperty     spacing settings holder
    */
   public void arrangeSpaces(final SpacingImpl spaceProperty) {
-    performModification(new Runnable() {
-      @Override
-      public void run() {
-        if (spaceProperty != null) {
-          if (getLineFeeds() == 0) {
-            if (spaceProperty.getMinSpaces() >= 0 && getTotalSpaces() < spaceProperty.getMinSpaces()) {
-              setSpaces(spaceProperty.getMinSpaces(), 0);
-            }
-            if (spaceProperty.getMaxSpaces() >= 0 && getTotalSpaces() > spaceProperty.getMaxSpaces()) {
-              setSpaces(spaceProperty.getMaxSpaces(), 0);
-            }
-          }
+    final int stateBefore = beforeModification();
+    if (stateBefore < 0) return;
+    if (spaceProperty != null) {
+      if (getLineFeeds() == 0) {
+        if (spaceProperty.getMinSpaces() >= 0 && getTotalSpaces() < spaceProperty.getMinSpaces()) {
+          setSpaces(spaceProperty.getMinSpaces(), 0);
+        }
+        if (spaceProperty.getMaxSpaces() >= 0 && getTotalSpaces() > spaceProperty.getMaxSpaces()) {
+          setSpaces(spaceProperty.getMaxSpaces(), 0);
         }
       }
-    });
+    }
+    afterModification(stateBefore);
   }
 
   /**
@@ -393,47 +402,45 @@ class WhiteSpace {
    * @param formatProcessor    format processor to use for space settings state refreshing
    */
   public void arrangeLineFeeds(final SpacingImpl spaceProperty, final FormatProcessor formatProcessor) {
-    performModification(new Runnable() {
-      @Override
-      public void run() {
-        if (spaceProperty != null) {
-          spaceProperty.refresh(formatProcessor);
-
-          if (spaceProperty.getMinLineFeeds() >= 0 && getLineFeeds() < spaceProperty.getMinLineFeeds()) {
-            setLineFeeds(spaceProperty.getMinLineFeeds());
+    final int stateBefore = beforeModification();
+    if (stateBefore < 0) return;
+    if (spaceProperty != null) {
+      spaceProperty.refresh(formatProcessor);
+
+      if (spaceProperty.getMinLineFeeds() >= 0 && getLineFeeds() < spaceProperty.getMinLineFeeds()) {
+        setLineFeeds(spaceProperty.getMinLineFeeds());
+      }
+      if (getLineFeeds() > 0) {
+        if (spaceProperty.getKeepBlankLines() > 0) {
+          if (getLineFeeds() >= spaceProperty.getKeepBlankLines() + 1) {
+            setLineFeeds(spaceProperty.getKeepBlankLines() + 1);
           }
-          if (getLineFeeds() > 0) {
-            if (spaceProperty.getKeepBlankLines() > 0) {
-              if (getLineFeeds() >= spaceProperty.getKeepBlankLines() + 1) {
-                setLineFeeds(spaceProperty.getKeepBlankLines() + 1);
-              }
+        }
+        else {
+          if (getLineFeeds() > spaceProperty.getMinLineFeeds()) {
+            if (spaceProperty.shouldKeepLineFeeds()) {
+              setLineFeeds(Math.max(spaceProperty.getMinLineFeeds(), 1));
             }
             else {
-              if (getLineFeeds() > spaceProperty.getMinLineFeeds()) {
-                if (spaceProperty.shouldKeepLineFeeds()) {
-                  setLineFeeds(Math.max(spaceProperty.getMinLineFeeds(), 1));
-                }
-                else {
-                  setLineFeeds(spaceProperty.getMinLineFeeds());
-                  if (getLineFeeds() == 0) mySpaces = 0;
-                }
-              }
-            }
-            if (getLineFeeds() == 1 && !spaceProperty.shouldKeepLineFeeds() && spaceProperty.getMinLineFeeds() == 0) {
-              setLineFeeds(0);
-              mySpaces = 0;
-            }
-
-            if (getLineFeeds() > 0 && getLineFeeds() < spaceProperty.getPrefLineFeeds()) {
-              setLineFeeds(spaceProperty.getPrefLineFeeds());
+              setLineFeeds(spaceProperty.getMinLineFeeds());
+              if (getLineFeeds() == 0) mySpaces = 0;
             }
           }
-        } else if (isFirst()) {
+        }
+        if (getLineFeeds() == 1 && !spaceProperty.shouldKeepLineFeeds() && spaceProperty.getMinLineFeeds() == 0) {
           setLineFeeds(0);
           mySpaces = 0;
         }
+
+        if (getLineFeeds() > 0 && getLineFeeds() < spaceProperty.getPrefLineFeeds()) {
+          setLineFeeds(spaceProperty.getPrefLineFeeds());
+        }
       }
-    });
+    } else if (isFirst()) {
+      setLineFeeds(0);
+      mySpaces = 0;
+    }
+    afterModification(stateBefore);
 
   }
 
@@ -478,15 +485,13 @@ class WhiteSpace {
    * Tries to ensure that current {@link WhiteSpace} object contains at least one line feed.
    */
   public void ensureLineFeed() {
-    performModification(new Runnable() {
-      @Override
-      public void run() {
-        if (!containsLineFeeds()) {
-          setLineFeeds(1);
-          mySpaces = 0;
-        }
-      }
-    });
+    final int stateBefore = beforeModification();
+    if (stateBefore < 0) return;
+    if (!containsLineFeeds()) {
+      setLineFeeds(1);
+      mySpaces = 0;
+    }
+    afterModification(stateBefore);
   }
 
   public boolean isReadOnly() {
@@ -547,14 +552,12 @@ class WhiteSpace {
    * @param formatProcessor     format processor to use to refresh state of the given <code>'spacing'</code> object
    */
   public void removeLineFeeds(final SpacingImpl spacing, final FormatProcessor formatProcessor) {
-    performModification(new Runnable() {
-      @Override
-      public void run() {
-        setLineFeeds(0);
-        mySpaces = 0;
-        myIndentSpaces = 0;
-      }
-    });
+    final int stateBefore = beforeModification();
+    if (stateBefore < 0) return;
+    setLineFeeds(0);
+    mySpaces = 0;
+    myIndentSpaces = 0;
+    afterModification(stateBefore);
     arrangeLineFeeds(spacing, formatProcessor);
     arrangeSpaces(spacing);
   }
@@ -42,6 +42,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.OrderEntry;
 import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
@@ -204,6 +205,11 @@ public final class PackageViewPane extends AbstractProjectViewPSIPane {
       protected AbstractTreeNode createRoot(final Project project, ViewSettings settings) {
         return new PackageViewProjectNode(project, settings);
       }
+
+      @Override
+      public boolean isToBuildChildrenInBackground(Object element) {
+        return Registry.is("projectView.backgroundChildren");
+      }
     };
   }
 
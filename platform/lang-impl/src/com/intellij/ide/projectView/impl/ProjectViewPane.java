@@ -39,6 +39,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.InvalidDataException;
 import com.intellij.openapi.util.JDOMExternalizerUtil;
 import com.intellij.openapi.util.WriteExternalException;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.psi.PsiDirectory;
 import org.jdom.Element;
 import org.jetbrains.annotations.NonNls;
@@ -182,6 +183,15 @@ public class ProjectViewPane extends AbstractProjectViewPSIPane {
     public boolean isShowExcludedFiles() {
       return myShowExcludedFiles;
     }
+
+    /**
+     * Children of project view nodes are computed under read action in the tree builder's background loader,
+     * so opening a big directory or a library root does not freeze the UI.
+     */
+    @Override
+    public boolean isToBuildChildrenInBackground(Object element) {
+      return Registry.is("projectView.backgroundChildren");
+    }
   }
 
   private final class ShowExcludedFilesAction extends ToggleAction {
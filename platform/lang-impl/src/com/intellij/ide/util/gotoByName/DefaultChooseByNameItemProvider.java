@@ -44,6 +44,7 @@ import java.util.*;
 public class DefaultChooseByNameItemProvider implements ChooseByNameItemProvider {
   private static final Logger LOG = Logger.getInstance("#com.intellij.ide.util.gotoByName.ChooseByNameIdea");
   private final Reference<PsiElement> myContext;
+  private volatile MatchedNames myLastMatchedNames;
 
   public DefaultChooseByNameItemProvider(PsiElement context) {
     myContext = new WeakReference<PsiElement>(context);
@@ -89,9 +90,11 @@ public class DefaultChooseByNameItemProvider implements ChooseByNameItemProvider
     } else {
       String[] names = base.getNames(everywhere);
       started = System.currentTimeMillis();
-      processNamesByPattern(base, names, matchingPattern, indicator, collect);
+      String[] candidates = getCandidateNames(base, names, matchingPattern);
+      processNamesByPattern(base, candidates, matchingPattern, indicator, collect);
+      rememberMatchedNames(base, names, matchingPattern, collect.getResult());
       if (LOG.isDebugEnabled()) {
-        LOG.debug("matched:"+ (System.currentTimeMillis() - started)+ "," + names.length);
+        LOG.debug("matched:"+ (System.currentTimeMillis() - started)+ "," + candidates.length + " of " + names.length);
       }
     }
 
@@ -176,6 +179,54 @@ public class DefaultChooseByNameItemProvider implements ChooseByNameItemProvider
     return ContainerUtil.process(qualifierMiddleMatched, consumer);
   }
 
+  /**
+   * When the pattern is being typed further, only names matched by the previous pattern can match the new one,
+   * so there is no need to rescan all the names on every keystroke.
+   */
+  @NotNull
+  private String[] getCandidateNames(@NotNull ChooseByNameBase base, @NotNull String[] names, @NotNull String pattern) {
+    MatchedNames last = myLastMatchedNames;
+    if (last != null && last.myAllNames == names && !(base.getModel() instanceof CustomMatcherModel) && canRefine(last.myPattern, pattern)) {
+      return last.myMatchedNames;
+    }
+    return names;
+  }
+
+  private void rememberMatchedNames(@NotNull ChooseByNameBase base,
+                                    @NotNull String[] names,
+                                    @NotNull String pattern,
+                                    @NotNull Collection<MatchResult> results) {
+    if (base.getModel() instanceof CustomMatcherModel) return;
+    String[] matched = new String[results.size()];
+    int i = 0;
+    for (MatchResult result : results) {
+      matched[i++] = result.elementName;
+    }
+    myLastMatchedNames = new MatchedNames(names, pattern, matched);
+  }
+
+  private static boolean canRefine(@NotNull String previousPattern, @NotNull String pattern) {
+    if (previousPattern.isEmpty() || !pattern.startsWith(previousPattern)) return false;
+    // wildcards, spaces and separators change the matching semantics, appending them may match names the prefix didn't
+    for (int i = 0; i < pattern.length(); i++) {
+      char c = pattern.charAt(i);
+      if (!Character.isLetterOrDigit(c) && !(i == 0 && c == '*')) return false;
+    }
+    return true;
+  }
+
+  private static class MatchedNames {
+    private final String[] myAllNames;
+    private final String myPattern;
+    private final String[] myMatchedNames;
+
+    private MatchedNames(@NotNull String[] allNames, @NotNull String pattern, @NotNull String[] matchedNames) {
+      myAllNames = allNames;
+      myPattern = pattern;
+      myMatchedNames = matchedNames;
+    }
+  }
+
   private static boolean startMiddleMatchVariants(@NotNull List<Object> qualifierMiddleMatched,
                                                   @NotNull Processor<Object> consumer) {
     if (!consumer.process(ChooseByNameBase.NON_PREFIX_SEPARATOR)) return false;
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.internal;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.codeInsight.daemon.impl.DaemonCodeAnalyzerImpl;
+import com.intellij.codeInsight.daemon.impl.PassLatencyStatistics;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+
+/**
+ * Shows latency percentiles of the highlighting passes run in the current project, and logs them.
+ */
+public class ShowPassLatenciesAction extends DumbAwareAction {
+  private static final Logger LOG = Logger.getInstance("#com.intellij.internal.ShowPassLatenciesAction");
+
+  public ShowPassLatenciesAction() {
+    super("Show Highlighting Pass Latencies");
+  }
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    Project project = e.getData(CommonDataKeys.PROJECT);
+    if (project == null) return;
+
+    PassLatencyStatistics statistics = ((DaemonCodeAnalyzerImpl)DaemonCodeAnalyzer.getInstance(project)).getPassLatencyStatistics();
+    String report = statistics.toString();
+    LOG.info(report);
+    if (Messages.showOkCancelDialog(project, report, "Highlighting Pass Latencies", "Clear", "Close", null) == Messages.OK) {
+      statistics.clear();
+    }
+  }
+
+  @Override
+  public void update(AnActionEvent e) {
+    e.getPresentation().setEnabled(e.getData(CommonDataKeys.PROJECT) != null);
+  }
+}
@@ -449,6 +449,14 @@ public class InjectedLanguageManagerImpl extends InjectedLanguageManager impleme
   public interface InjProcessor {
     boolean process(PsiElement element, MultiHostInjector injector);
   }
+  /**
+   * @return <code>false</code> if no {@link MultiHostInjector} is registered for the class of the given element,
+   *         i.e. the element itself can't host injected fragments
+   */
+  public boolean mayHaveInPlaceInjectors(@NotNull PsiElement element) {
+    return cachedInjectors.get(element.getClass()) != null;
+  }
+
   public void processInPlaceInjectorsFor(@NotNull PsiElement element, @NotNull InjProcessor processor) {
     MultiHostInjector[] infos = cachedInjectors.get(element.getClass());
     if (infos != null) {
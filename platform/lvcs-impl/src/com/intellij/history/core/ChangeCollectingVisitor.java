@@ -16,6 +16,7 @@
 package com.intellij.history.core;
 
 import com.intellij.history.core.changes.*;
+import com.intellij.openapi.util.Condition;
 import com.intellij.psi.codeStyle.NameUtil;
 import org.jetbrains.annotations.Nullable;
 
@@ -47,6 +48,17 @@ public class ChangeCollectingVisitor extends ChangeVisitor {
     return myPath;
   }
 
+  @Override
+  public Condition<ChangeSetPaths> getChangeSetFilter() {
+    // change sets which neither affect the path nor put a label for the project leave the visitor state untouched
+    return new Condition<ChangeSetPaths>() {
+      @Override
+      public boolean value(ChangeSetPaths paths) {
+        return paths.affectsPath(myPath) || paths.affectsProject(myProjectId);
+      }
+    };
+  }
+
   @Override
   public void begin(ChangeSet c) throws StopVisitingException {
     myCurrentChangeSet = c;
@@ -18,17 +18,21 @@ package com.intellij.history.core;
 
 import com.intellij.history.core.changes.Change;
 import com.intellij.history.core.changes.ChangeSet;
+import com.intellij.history.core.changes.ChangeSetPaths;
 import com.intellij.history.core.changes.ChangeVisitor;
 import com.intellij.history.utils.LocalHistoryLog;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.util.Clock;
+import com.intellij.openapi.util.Condition;
 import com.intellij.util.Consumer;
 import gnu.trove.TIntHashSet;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class ChangeList {
   private final ChangeListStorage myStorage;
@@ -112,24 +116,37 @@ public class ChangeList {
     return result;
   }
 
+  public Iterable<ChangeSet> iterChanges() {
+    return iterChanges(null);
+  }
+
+  /**
+   * @param filter if not null, stored change sets whose paths are rejected by it may be skipped; since the next change set is fetched
+   *               only when requested, the filter may depend on the processing of the previous ones
+   */
   // todo synchronization issue: changeset may me modified while being iterated
-  public synchronized Iterable<ChangeSet> iterChanges() {
+  public synchronized Iterable<ChangeSet> iterChanges(@Nullable final Condition<ChangeSetPaths> filter) {
     return new Iterable<ChangeSet>() {
       public Iterator<ChangeSet> iterator() {
         return new Iterator<ChangeSet>() {
           private final TIntHashSet recursionGuard = new TIntHashSet(1000);
 
           private ChangeSetHolder currentBlock;
-          private ChangeSet next = fetchNext();
+          private ChangeSet next;
+          private boolean isFetched;
 
           public boolean hasNext() {
+            if (!isFetched) {
+              next = fetchNext();
+              isFetched = true;
+            }
             return next != null;
           }
 
           public ChangeSet next() {
-            ChangeSet result = next;
-            next = fetchNext();
-            return result;
+            if (!hasNext()) throw new NoSuchElementException();
+            isFetched = false;
+            return next;
           }
 
           private ChangeSet fetchNext() {
@@ -139,19 +156,24 @@ public class ChangeList {
                   currentBlock = new ChangeSetHolder(-1, myCurrentChangeSet);
                 }
                 else {
-                  currentBlock = myStorage.readPrevious(-1, recursionGuard);
+                  currentBlock = readPrevious(-1);
                 }
               }
             }
             else {
               synchronized (ChangeList.this) {
-                currentBlock = myStorage.readPrevious(currentBlock.id, recursionGuard);
+                currentBlock = readPrevious(currentBlock.id);
               }
             }
             if (currentBlock == null) return null;
             return currentBlock.changeSet;
           }
 
+          @Nullable
+          private ChangeSetHolder readPrevious(int id) {
+            return filter == null ? myStorage.readPrevious(id, recursionGuard) : myStorage.readPrevious(id, recursionGuard, filter);
+          }
+
           public void remove() {
             throw new UnsupportedOperationException();
           }
@@ -162,7 +184,7 @@ public class ChangeList {
 
   public void accept(ChangeVisitor v) {
     try {
-      for (ChangeSet change : iterChanges()) {
+      for (ChangeSet change : iterChanges(v.getChangeSetFilter())) {
         change.accept(v);
       }
     }
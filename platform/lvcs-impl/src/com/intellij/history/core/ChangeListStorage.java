@@ -17,8 +17,11 @@
 package com.intellij.history.core;
 
 import com.intellij.history.core.changes.ChangeSet;
+import com.intellij.history.core.changes.ChangeSetPaths;
+import com.intellij.openapi.util.Condition;
 import com.intellij.util.Consumer;
 import gnu.trove.TIntHashSet;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public interface ChangeListStorage {
@@ -29,6 +32,12 @@ public interface ChangeListStorage {
   @Nullable
   ChangeSetHolder readPrevious(int id, TIntHashSet recursionGuard);
 
+  /**
+   * Same as {@link #readPrevious(int, TIntHashSet)}, but change sets whose paths are known to be rejected by the filter are skipped without being read.
+   */
+  @Nullable
+  ChangeSetHolder readPrevious(int id, TIntHashSet recursionGuard, @NotNull Condition<ChangeSetPaths> filter);
+
   void purge(long period, int intervalBetweenActivities, Consumer<ChangeSet> processor);
 
   void writeNextSet(ChangeSet changeSet);
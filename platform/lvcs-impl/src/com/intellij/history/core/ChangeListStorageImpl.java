@@ -16,7 +16,9 @@
 
 package com.intellij.history.core;
 
+import com.intellij.concurrency.JobScheduler;
 import com.intellij.history.core.changes.ChangeSet;
+import com.intellij.history.core.changes.ChangeSetPaths;
 import com.intellij.history.utils.LocalHistoryLog;
 import com.intellij.ide.BrowserUtil;
 import com.intellij.ide.actions.ShowFilePathAction;
@@ -25,31 +27,46 @@ import com.intellij.notification.NotificationListener;
 import com.intellij.notification.NotificationType;
 import com.intellij.notification.Notifications;
 import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.ThrowableComputable;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.newvfs.ManagingFS;
 import com.intellij.util.Consumer;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.PersistentHashMap;
 import com.intellij.util.io.storage.AbstractStorage;
 import gnu.trove.TIntHashSet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.event.HyperlinkEvent;
+import java.io.DataInput;
 import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
 
 public class ChangeListStorageImpl implements ChangeListStorage {
   private static final int VERSION = 5;
   private static final String STORAGE_FILE = "changes";
+  private static final String PATHS_INDEX_FILE = "changes.paths";
+  // change sets written during this period are forced to disk together
+  private static final int FORCE_DELAY_MS = 1000;
 
   private final File myStorageDir;
   private LocalHistoryStorage myStorage;
+  // record id -> paths affected by the change set stored in it; records written by older versions may be missing
+  private PersistentHashMap<Integer, ChangeSetPaths> myPathsIndex;
   private long myLastId;
 
   private boolean isCompletelyBroken = false;
+  private boolean myForceScheduled = false;
 
   public ChangeListStorageImpl(File storageDir) throws IOException {
     myStorageDir = storageDir;
@@ -83,6 +100,36 @@ public class ChangeListStorageImpl implements ChangeListStorage {
 
     myLastId = result.getLastId();
     myStorage = result;
+    myPathsIndex = openPathsIndex(storageDir);
+  }
+
+  private static PersistentHashMap<Integer, ChangeSetPaths> openPathsIndex(File storageDir) throws IOException {
+    final File file = new File(storageDir, PATHS_INDEX_FILE);
+    return IOUtil.openCleanOrResetBroken(new ThrowableComputable<PersistentHashMap<Integer, ChangeSetPaths>, IOException>() {
+      @Override
+      public PersistentHashMap<Integer, ChangeSetPaths> compute() throws IOException {
+        return new PersistentHashMap<Integer, ChangeSetPaths>(file, EnumeratorIntegerDescriptor.INSTANCE, new DataExternalizer<ChangeSetPaths>() {
+          @Override
+          public void save(@NotNull DataOutput out, ChangeSetPaths value) throws IOException {
+            value.write(out);
+          }
+
+          @Override
+          public ChangeSetPaths read(@NotNull DataInput in) throws IOException {
+            return new ChangeSetPaths(in);
+          }
+        });
+      }
+    }, file);
+  }
+
+  private void closePathsIndex() {
+    try {
+      myPathsIndex.close();
+    }
+    catch (IOException e) {
+      LocalHistoryLog.LOG.warn("cannot close paths index", e);
+    }
   }
 
   private static long getVFSTimestamp() {
@@ -109,6 +156,7 @@ public class ChangeListStorageImpl implements ChangeListStorage {
                               ",vfs timestamp:" + DateFormat.getDateTimeInstance().format(vfsTimestamp) + ")\n" + message, e);
 
     myStorage.dispose();
+    closePathsIndex();
     try {
       FileUtil.delete(myStorageDir);
       initStorage(myStorageDir);
@@ -150,7 +198,9 @@ public class ChangeListStorageImpl implements ChangeListStorage {
   }
 
   public synchronized void close() {
+    myForceScheduled = false;
     myStorage.dispose();
+    closePathsIndex();
   }
 
   public synchronized long nextId() {
@@ -159,11 +209,27 @@ public class ChangeListStorageImpl implements ChangeListStorage {
 
   @Nullable
   public synchronized ChangeSetHolder readPrevious(int id, TIntHashSet recursionGuard) {
+    return doReadPrevious(id, recursionGuard, null);
+  }
+
+  @Nullable
+  public synchronized ChangeSetHolder readPrevious(int id, TIntHashSet recursionGuard, @NotNull Condition<ChangeSetPaths> filter) {
+    return doReadPrevious(id, recursionGuard, filter);
+  }
+
+  @Nullable
+  private ChangeSetHolder doReadPrevious(int id, TIntHashSet recursionGuard, @Nullable Condition<ChangeSetPaths> filter) {
     if (isCompletelyBroken) return null;
 
     int prevId = 0;
     try {
       prevId = id == -1 ? myStorage.getLastRecord() : doReadPrevSafely(id, recursionGuard);
+      if (filter != null) {
+        ChangeSetPaths paths;
+        while (prevId != 0 && (paths = myPathsIndex.get(prevId)) != null && !filter.value(paths)) {
+          prevId = doReadPrevSafely(prevId, recursionGuard);
+        }
+      }
       if (prevId == 0) return null;
 
       return doReadBlock(prevId);
@@ -208,21 +274,41 @@ public class ChangeListStorageImpl implements ChangeListStorage {
     if (isCompletelyBroken) return;
 
     try {
-      AbstractStorage.StorageDataOutput out = myStorage.writeStream(myStorage.createNextRecord(), true);
+      int id = myStorage.createNextRecord();
+      AbstractStorage.StorageDataOutput out = myStorage.writeStream(id, true);
       try {
         changeSet.write(out);
       }
       finally {
         out.close();
       }
+      myPathsIndex.put(id, new ChangeSetPaths(changeSet));
       myStorage.setLastId(myLastId);
-      myStorage.force();
+      scheduleForce();
     }
     catch (IOException e) {
       handleError(e, null);
     }
   }
 
+  private void scheduleForce() {
+    if (myForceScheduled) return;
+    myForceScheduled = true;
+    JobScheduler.getScheduler().schedule(new Runnable() {
+      @Override
+      public void run() {
+        forceScheduled();
+      }
+    }, FORCE_DELAY_MS, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void forceScheduled() {
+    if (!myForceScheduled || isCompletelyBroken) return;
+    myForceScheduled = false;
+    myStorage.force();
+    myPathsIndex.force();
+  }
+
   public synchronized void purge(long period, int intervalBetweenActivities, Consumer<ChangeSet> processor) {
     if (isCompletelyBroken) return;
 
@@ -236,10 +322,13 @@ public class ChangeListStorageImpl implements ChangeListStorage {
 
       while (eachBlockId != 0) {
         processor.consume(doReadBlock(eachBlockId).changeSet);
+        myPathsIndex.remove(eachBlockId);
         eachBlockId = doReadPrevSafely(eachBlockId, recursionGuard);
       }
       myStorage.deleteRecordsUpTo(firstObsoleteId);
+      myForceScheduled = false;
       myStorage.force();
+      myPathsIndex.force();
     }
     catch (IOException e) {
       handleError(e, null);
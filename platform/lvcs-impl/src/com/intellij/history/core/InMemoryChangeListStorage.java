@@ -16,8 +16,11 @@
 package com.intellij.history.core;
 
 import com.intellij.history.core.changes.ChangeSet;
+import com.intellij.history.core.changes.ChangeSetPaths;
+import com.intellij.openapi.util.Condition;
 import com.intellij.util.Consumer;
 import gnu.trove.TIntHashSet;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
@@ -44,6 +47,16 @@ public class InMemoryChangeListStorage implements ChangeListStorage {
     return id == 0 ? null : new ChangeSetHolder(id -1, mySets.get(id - 1));
   }
 
+  @Override
+  @Nullable
+  public ChangeSetHolder readPrevious(int id, TIntHashSet recursionGuard, @NotNull Condition<ChangeSetPaths> filter) {
+    ChangeSetHolder result = readPrevious(id, recursionGuard);
+    while (result != null && !filter.value(new ChangeSetPaths(result.changeSet))) {
+      result = readPrevious(result.id, recursionGuard);
+    }
+    return result;
+  }
+
   @Override
   public void writeNextSet(ChangeSet changeSet) {
     mySets.add(changeSet);
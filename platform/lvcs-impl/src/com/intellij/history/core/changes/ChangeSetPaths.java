@@ -0,0 +1,95 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.history.core.changes;
+
+import com.intellij.history.core.Paths;
+import com.intellij.history.core.StreamUtil;
+import com.intellij.util.ArrayUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Paths affected by the structural changes of a change set and ids of projects its labels were put for.
+ * <p/>
+ * It is enough to tell whether {@link Change#affectsPath(String)} or {@link Change#affectsProject(String)} may be true for
+ * any change of the change set, so the change set itself doesn't have to be read for that.
+ */
+public class ChangeSetPaths {
+  @NotNull private final String[] myPaths;
+  @NotNull private final String[] myLabelProjectIds;
+
+  public ChangeSetPaths(@NotNull ChangeSet changeSet) {
+    Set<String> paths = new LinkedHashSet<String>();
+    Set<String> projectIds = new LinkedHashSet<String>();
+    for (Change each : changeSet.getChanges()) {
+      if (each instanceof StructuralChange) {
+        for (String path : ((StructuralChange)each).getAffectedPaths()) {
+          paths.add(path);
+        }
+      }
+      else if (each instanceof PutLabelChange) {
+        projectIds.add(((PutLabelChange)each).getProjectId());
+      }
+    }
+    myPaths = ArrayUtil.toStringArray(paths);
+    myLabelProjectIds = ArrayUtil.toStringArray(projectIds);
+  }
+
+  public ChangeSetPaths(DataInput in) throws IOException {
+    myPaths = readStrings(in);
+    myLabelProjectIds = readStrings(in);
+  }
+
+  public void write(DataOutput out) throws IOException {
+    writeStrings(out, myPaths);
+    writeStrings(out, myLabelProjectIds);
+  }
+
+  public boolean affectsPath(String path) {
+    for (String each : myPaths) {
+      if (Paths.isParentOrChild(each, path)) return true;
+    }
+    return false;
+  }
+
+  public boolean affectsProject(String projectId) {
+    for (String each : myLabelProjectIds) {
+      if (each.equals(projectId)) return true;
+    }
+    return false;
+  }
+
+  @NotNull
+  private static String[] readStrings(DataInput in) throws IOException {
+    String[] result = new String[in.readInt()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = StreamUtil.readString(in);
+    }
+    return result;
+  }
+
+  private static void writeStrings(DataOutput out, @NotNull String[] strings) throws IOException {
+    out.writeInt(strings.length);
+    for (String each : strings) {
+      StreamUtil.writeString(out, each);
+    }
+  }
+}
@@ -16,7 +16,19 @@
 
 package com.intellij.history.core.changes;
 
+import com.intellij.openapi.util.Condition;
+import org.jetbrains.annotations.Nullable;
+
 public abstract class ChangeVisitor {
+  /**
+   * @return condition telling whether a stored change set affecting the given paths has to be visited; it is checked right before
+   *         the change set would be read, so it may depend on the state of the visitor. <code>null</code> means all change sets are visited.
+   */
+  @Nullable
+  public Condition<ChangeSetPaths> getChangeSetFilter() {
+    return null;
+  }
+
   public void finished() {
   }
 
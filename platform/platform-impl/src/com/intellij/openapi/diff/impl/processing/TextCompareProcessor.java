@@ -15,6 +15,8 @@
  */
 package com.intellij.openapi.diff.impl.processing;
 
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.diff.ex.DiffFragment;
 import com.intellij.openapi.diff.impl.ComparisonPolicy;
@@ -23,13 +25,22 @@ import com.intellij.openapi.diff.impl.fragments.LineFragment;
 import com.intellij.openapi.diff.impl.highlighting.FragmentSide;
 import com.intellij.openapi.diff.impl.highlighting.LineBlockDivider;
 import com.intellij.openapi.diff.impl.highlighting.Util;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.util.Processor;
 import com.intellij.util.diff.FilesTooBigForDiffException;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TextCompareProcessor {
   private static final Logger LOG = Logger.getInstance("#com.intellij.openapi.diff.impl.processing.Processor");
+  // splitting by words is cheap for a few changed blocks, not worth to schedule them to other threads
+  private static final int MIN_BLOCKS_TO_PROCESS_CONCURRENTLY = 16;
+
   private final DiffPolicy myDiffPolicy;
   @NotNull private final ComparisonPolicy myComparisonPolicy;
 
@@ -42,22 +53,55 @@ public class TextCompareProcessor {
     this(comparisonPolicy, DiffPolicy.LINES_WO_FORMATTING);
   }
 
-  public ArrayList<LineFragment> process(String text1, String text2) throws FilesTooBigForDiffException {
+  public ArrayList<LineFragment> process(final String text1, final String text2) throws FilesTooBigForDiffException {
     DiffFragment[] woFormattingBlocks = myDiffPolicy.buildFragments(text1, text2);
     DiffFragment[] step1lineFragments = new DiffCorrection.TrueLineBlocks(myComparisonPolicy).
         correctAndNormalize(woFormattingBlocks);
     ArrayList<LineFragment> lineBlocks = new DiffFragmentsProcessor().process(step1lineFragments);
+    List<LineFragment> changedBlocks = new ArrayList<LineFragment>();
     for (LineFragment lineBlock : lineBlocks) {
       if (lineBlock.isOneSide() || lineBlock.isEqual()) continue;
-      String subText1 = lineBlock.getText(text1, FragmentSide.SIDE1);
-      String subText2 = lineBlock.getText(text2, FragmentSide.SIDE2);
-      ArrayList<LineFragment> subFragments = findSubFragments(subText1, subText2);
-      lineBlock.setChildren(new ArrayList<Fragment>(subFragments));
-      lineBlock.adjustTypeFromChildrenTypes();
+      changedBlocks.add(lineBlock);
     }
+
+    if (changedBlocks.size() < MIN_BLOCKS_TO_PROCESS_CONCURRENTLY || ApplicationManager.getApplication() == null) {
+      for (LineFragment lineBlock : changedBlocks) {
+        processChangedBlock(lineBlock, text1, text2);
+      }
+      return lineBlocks;
+    }
+
+    // changed blocks are independent from each other, so they are split by words concurrently
+    final AtomicReference<FilesTooBigForDiffException> tooBig = new AtomicReference<FilesTooBigForDiffException>();
+    Processor<LineFragment> processor = new Processor<LineFragment>() {
+      @Override
+      public boolean process(LineFragment lineBlock) {
+        try {
+          processChangedBlock(lineBlock, text1, text2);
+          return true;
+        }
+        catch (FilesTooBigForDiffException e) {
+          tooBig.set(e);
+          return false;
+        }
+      }
+    };
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(changedBlocks, indicator, false, false, processor);
+    if (tooBig.get() != null) throw tooBig.get();
+    // blocks are left unprocessed only if the indicator has been canceled
+    if (!completed) throw new ProcessCanceledException();
     return lineBlocks;
   }
 
+  private void processChangedBlock(LineFragment lineBlock, String text1, String text2) throws FilesTooBigForDiffException {
+    String subText1 = lineBlock.getText(text1, FragmentSide.SIDE1);
+    String subText2 = lineBlock.getText(text2, FragmentSide.SIDE2);
+    ArrayList<LineFragment> subFragments = findSubFragments(subText1, subText2);
+    lineBlock.setChildren(new ArrayList<Fragment>(subFragments));
+    lineBlock.adjustTypeFromChildrenTypes();
+  }
+
   private ArrayList<LineFragment> findSubFragments(String text1, String text2) throws FilesTooBigForDiffException {
     DiffFragment[] fragments = new ByWord(myComparisonPolicy).buildFragments(text1, text2);
     fragments = DiffCorrection.ConnectSingleSideToChange.INSTANCE.correct(fragments);
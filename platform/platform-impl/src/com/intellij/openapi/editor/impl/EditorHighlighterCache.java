@@ -23,12 +23,20 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 
 /**
  * @author yole
  */
 public class EditorHighlighterCache {
   private static final Key<WeakReference<EditorHighlighter>> ourSomeEditorSyntaxHighlighter = Key.create("some editor highlighter");
+  private static final Key<CachedLexerState> ourLexerState = Key.create("editor highlighter lexer state");
+  private static final int MAX_LEXER_STATES_SIZE = 16 * 1024 * 1024;
+
+  // least recently used first, guarded by itself
+  private static final LinkedHashSet<CachedLexerState> ourLexerStates = new LinkedHashSet<CachedLexerState>();
+  private static long ourLexerStatesSize;
 
   private EditorHighlighterCache() {
   }
@@ -54,4 +62,97 @@ public class EditorHighlighterCache {
     return null;
   }
 
+  /**
+   * Remembers lexing results of the given highlighter so that an editor opened later for the unchanged document
+   * doesn't need to re-lex its whole text. Total size of remembered results is bounded, least recently used ones are dropped.
+   */
+  public static void rememberLexerState(@NotNull Document document, @NotNull EditorHighlighter highlighter) {
+    if (!(highlighter instanceof LexerEditorHighlighter)) return;
+    LexerEditorHighlighter.Snapshot snapshot = ((LexerEditorHighlighter)highlighter).createSnapshot();
+    if (snapshot == null || snapshot.getMemorySize() > MAX_LEXER_STATES_SIZE / 4) return;
+
+    synchronized (ourLexerStates) {
+      removeLexerState(document.getUserData(ourLexerState));
+      CachedLexerState state = new CachedLexerState(document, snapshot);
+      document.putUserData(ourLexerState, state);
+      ourLexerStates.add(state);
+      ourLexerStatesSize += snapshot.getMemorySize();
+
+      Iterator<CachedLexerState> iterator = ourLexerStates.iterator();
+      while (ourLexerStatesSize > MAX_LEXER_STATES_SIZE && iterator.hasNext()) {
+        CachedLexerState eldest = iterator.next();
+        iterator.remove();
+        ourLexerStatesSize -= eldest.mySnapshot.getMemorySize();
+        Document eldestDocument = eldest.myDocument.get();
+        if (eldestDocument != null && eldestDocument.getUserData(ourLexerState) == eldest) {
+          eldestDocument.putUserData(ourLexerState, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return lexing results for the current text of the given document which can be used to initialize the given highlighter,
+   *         taken either from another editor's highlighter or from {@link #rememberLexerState(Document, EditorHighlighter)}
+   */
+  @Nullable
+  public static LexerEditorHighlighter.Snapshot getLexerState(@NotNull Document document, @NotNull EditorHighlighter highlighter) {
+    if (!(highlighter instanceof LexerEditorHighlighter)) return null;
+    LexerEditorHighlighter target = (LexerEditorHighlighter)highlighter;
+
+    EditorHighlighter live = getEditorHighlighterForCachesBuilding(document);
+    if (live != null && live != highlighter && live.getClass() == highlighter.getClass()) {
+      LexerEditorHighlighter.Snapshot snapshot = ((LexerEditorHighlighter)live).createSnapshot();
+      if (snapshot != null && target.isCompatible(snapshot)) return snapshot;
+    }
+
+    synchronized (ourLexerStates) {
+      CachedLexerState state = document.getUserData(ourLexerState);
+      if (state == null) return null;
+      if (state.myModificationStamp != document.getModificationStamp()) {
+        removeLexerState(state);
+        document.putUserData(ourLexerState, null);
+        return null;
+      }
+      if (!target.isCompatible(state.mySnapshot)) return null;
+      // move to the most recently used end
+      ourLexerStates.remove(state);
+      ourLexerStates.add(state);
+      return state.mySnapshot;
+    }
+  }
+
+  /**
+   * Drops all remembered lexing results, e.g. when highlighters are replaced because the lexer settings have changed.
+   */
+  public static void forgetLexerStates() {
+    synchronized (ourLexerStates) {
+      for (CachedLexerState state : ourLexerStates) {
+        Document document = state.myDocument.get();
+        if (document != null && document.getUserData(ourLexerState) == state) {
+          document.putUserData(ourLexerState, null);
+        }
+      }
+      ourLexerStates.clear();
+      ourLexerStatesSize = 0;
+    }
+  }
+
+  private static void removeLexerState(@Nullable CachedLexerState state) {
+    if (state != null && ourLexerStates.remove(state)) {
+      ourLexerStatesSize -= state.mySnapshot.getMemorySize();
+    }
+  }
+
+  private static class CachedLexerState {
+    private final WeakReference<Document> myDocument;
+    private final long myModificationStamp;
+    private final LexerEditorHighlighter.Snapshot mySnapshot;
+
+    private CachedLexerState(@NotNull Document document, @NotNull LexerEditorHighlighter.Snapshot snapshot) {
+      myDocument = new WeakReference<Document>(document);
+      myModificationStamp = document.getModificationStamp();
+      mySnapshot = snapshot;
+    }
+  }
 }
@@ -47,8 +47,10 @@ import com.intellij.openapi.editor.event.*;
 import com.intellij.openapi.editor.ex.*;
 import com.intellij.openapi.editor.ex.util.EditorUtil;
 import com.intellij.openapi.editor.ex.util.EmptyEditorHighlighter;
+import com.intellij.openapi.editor.ex.util.LexerEditorHighlighter;
 import com.intellij.openapi.editor.highlighter.EditorHighlighter;
 import com.intellij.openapi.editor.highlighter.HighlighterClient;
+import com.intellij.openapi.editor.impl.event.MarkupModelBatchListener;
 import com.intellij.openapi.editor.impl.event.MarkupModelListener;
 import com.intellij.openapi.editor.impl.softwrap.SoftWrapAppliancePlaces;
 import com.intellij.openapi.editor.impl.softwrap.SoftWrapDrawingType;
@@ -336,7 +338,14 @@ public final class EditorImpl extends UserDataHolderBase implements EditorEx, Hi
       myConnection.subscribe(DocumentBulkUpdateListener.TOPIC, new EditorDocumentBulkUpdateAdapter());
     }
 
-    MarkupModelListener markupModelListener = new MarkupModelListener() {
+    MarkupModelListener markupModelListener = new MarkupModelBatchListener() {
+      // offsets affected by the changes made during the current batch update, see MarkupModelEx.runInBatchMode()
+      private int myBatchDepth;
+      private int myBatchStart = Integer.MAX_VALUE;
+      private int myBatchEnd = -1;
+      private boolean myBatchErrorStripeChanged;
+      private boolean myBatchRenderersChanged;
+
       private boolean areRenderersInvolved(@NotNull RangeHighlighterEx highlighter) {
         return highlighter.getCustomRenderer() != null ||
                highlighter.getGutterIconRenderer() != null ||
@@ -360,13 +369,44 @@ public final class EditorImpl extends UserDataHolderBase implements EditorEx, Hi
 
         int start = Math.min(Math.max(highlighter.getAffectedAreaStartOffset(), 0), textLength);
         int end = Math.min(Math.max(highlighter.getAffectedAreaEndOffset(), 0), textLength);
+        boolean errorStripeChanged = renderersChanged || highlighter.getErrorStripeMarkColor() != null;
+
+        if (myBatchDepth > 0) {
+          myBatchStart = Math.min(myBatchStart, start);
+          myBatchEnd = Math.max(myBatchEnd, end);
+          myBatchErrorStripeChanged |= errorStripeChanged;
+          myBatchRenderersChanged |= renderersChanged;
+          return;
+        }
+        repaintAffectedArea(start, end, errorStripeChanged, renderersChanged);
+      }
+
+      @Override
+      public void batchUpdateStarted() {
+        myBatchDepth++;
+      }
 
+      @Override
+      public void batchUpdateFinished() {
+        if (myBatchDepth == 0 || --myBatchDepth > 0) return;
+        if (myBatchEnd >= 0 && !myDocument.isInBulkUpdate()) {
+          int textLength = myDocument.getTextLength();
+          repaintAffectedArea(Math.min(myBatchStart, textLength), Math.min(myBatchEnd, textLength), myBatchErrorStripeChanged,
+                              myBatchRenderersChanged);
+        }
+        myBatchStart = Integer.MAX_VALUE;
+        myBatchEnd = -1;
+        myBatchErrorStripeChanged = false;
+        myBatchRenderersChanged = false;
+      }
+
+      private void repaintAffectedArea(int start, int end, boolean errorStripeChanged, boolean renderersChanged) {
         int startLine = start == -1 ? 0 : myDocument.getLineNumber(start);
         int endLine = end == -1 ? myDocument.getLineCount() : myDocument.getLineNumber(end);
         repaintLines(Math.max(0, startLine - 1), Math.min(endLine + 1, getDocument().getLineCount()));
 
         // optimization: there is no need to repaint error stripe if the highlighter is invisible on it
-        if (renderersChanged || highlighter.getErrorStripeMarkColor() != null) {
+        if (errorStripeChanged) {
           ((EditorMarkupModelImpl)getMarkupModel()).repaint(start, end);
         }
 
@@ -1038,19 +1078,32 @@ public final class EditorImpl extends UserDataHolderBase implements EditorEx, Hi
   public void setHighlighter(@NotNull final EditorHighlighter highlighter) {
     assertIsDispatchThread();
     final Document document = getDocument();
+    // a highlighter is replaced when e.g. the lexer settings (language level, custom file type keywords) have changed,
+    // while the document stays the same, so lexing results of existing highlighters can't be reused
+    boolean replaced = myHighlighter != null && !(myHighlighter instanceof EmptyEditorHighlighter);
     Disposer.dispose(myHighlighterDisposable);
+    if (replaced) {
+      EditorHighlighterCache.forgetLexerStates();
+    }
 
     document.addDocumentListener(highlighter);
     myHighlighter = highlighter;
     myHighlighterDisposable = new Disposable() {
       @Override
       public void dispose() {
+        EditorHighlighterCache.rememberLexerState(document, highlighter);
         document.removeDocumentListener(highlighter);
       }
     };
     Disposer.register(myDisposable, myHighlighterDisposable);
     highlighter.setEditor(this);
-    highlighter.setText(document.getImmutableCharSequence());
+    LexerEditorHighlighter.Snapshot lexerState = replaced ? null : EditorHighlighterCache.getLexerState(document, highlighter);
+    if (lexerState != null) {
+      ((LexerEditorHighlighter)highlighter).setText(document.getImmutableCharSequence(), lexerState);
+    }
+    else {
+      highlighter.setText(document.getImmutableCharSequence());
+    }
     EditorHighlighterCache.rememberEditorHighlighterForCachesOptimization(document, highlighter);
 
     if (myPanel != null) {
@@ -313,7 +313,26 @@ abstract class FoldRegionsTree {
   }
 
   void removeRegion(FoldRegion range) {
-    myRegions.remove(range);
+    int index = indexOfRegion(range);
+    if (index >= 0) {
+      myRegions.remove(index);
+    }
+  }
+
+  private int indexOfRegion(@NotNull FoldRegion region) {
+    // regions are sorted by start offset, so there is no need to scan all of them when a lot of regions are removed in a batch
+    int index = Collections.binarySearch(myRegions, region, RangeMarker.BY_START_OFFSET);
+    if (index >= 0) {
+      int startOffset = region.getStartOffset();
+      for (int i = index; i >= 0 && myRegions.get(i).getStartOffset() == startOffset; i--) {
+        if (myRegions.get(i) == region) return i;
+      }
+      for (int i = index + 1; i < myRegions.size() && myRegions.get(i).getStartOffset() == startOffset; i++) {
+        if (myRegions.get(i) == region) return i;
+      }
+    }
+    // the order may be broken by invalid regions
+    return myRegions.indexOf(region);
   }
 
   int getFoldedLinesCountBefore(int offset) {
@@ -102,24 +102,23 @@ public class SoftWrapsStorage {
    * @return              number of soft wraps which {@link TextChange#getStart() start offsets} belong to the target range
    */
   public int getNumberOfSoftWrapsInRange(int startOffset, int endOffset) {
-    int startIndex = getSoftWrapIndex(startOffset);
-    if (startIndex < 0) {
-      startIndex = -startIndex - 1;
-    }
-
-    if (startIndex >= myWraps.size()) {
+    if (endOffset < startOffset) {
       return 0;
     }
-    int result = 0;
-    int endIndex = startIndex;
-    for (; endIndex < myWraps.size(); endIndex++) {
-      SoftWrap softWrap = myWraps.get(endIndex);
-      if (softWrap.getStart() > endOffset) {
-        break;
-      }
-      result++;
-    }
-    return result;
+    // Soft wraps are sorted by offset, so index of the first soft wrap at or after the given offset is the number of soft wraps
+    // located before it. That allows to answer in logarithmic time instead of walking through all soft wraps from the range.
+    int endIndex = getSoftWrapIndex(endOffset);
+    endIndex = endIndex >= 0 ? endIndex + 1 : -endIndex - 1;
+    return endIndex - getNumberOfSoftWrapsBefore(startOffset);
+  }
+
+  /**
+   * @param offset    target offset
+   * @return          number of soft wraps which {@link TextChange#getStart() start offsets} are strictly less than the given offset
+   */
+  public int getNumberOfSoftWrapsBefore(int offset) {
+    int i = getSoftWrapIndex(offset);
+    return i >= 0 ? i : -i - 1;
   }
   
   /**
@@ -157,23 +156,12 @@ public class SoftWrapsStorage {
    */
   public void removeInRange(int startOffset, int endOffset) {
     //CachingSoftWrapDataMapper.log(String.format("xxxxxxxxxx SoftWrapsStorage.removeInRange(%d, %d). Current number: %d", startOffset, endOffset, myWraps.size()));
-    int startIndex = getSoftWrapIndex(startOffset);
-    if (startIndex < 0) {
-      startIndex = -startIndex - 1;
-    }
-
+    int startIndex = getNumberOfSoftWrapsBefore(startOffset);
     if (startIndex >= myWraps.size()) {
       return;
     }
 
-    int endIndex = startIndex;
-    for (; endIndex < myWraps.size(); endIndex++) {
-      SoftWrap softWrap = myWraps.get(endIndex);
-      if (softWrap.getStart() >= endOffset) {
-        break;
-      }
-    }
-
+    int endIndex = getNumberOfSoftWrapsBefore(endOffset);
     if (endIndex > startIndex) {
       myWraps.subList(startIndex, endIndex).clear();
       notifyListenersAboutRemoval();
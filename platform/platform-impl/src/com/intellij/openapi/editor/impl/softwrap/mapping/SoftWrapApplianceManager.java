@@ -842,7 +842,7 @@ public class SoftWrapApplianceManager implements DocumentListener, Dumpable {
     int yScrollOffset = scrollingModel.getVerticalScrollOffset();
     int anchorOffset = myLastTopLeftCornerOffset;
     if (anchorOffset >= 0) {
-      softWrapsBefore = getNumberOfSoftWrapsBefore(anchorOffset);
+      softWrapsBefore = myStorage.getNumberOfSoftWrapsBefore(anchorOffset);
     }
 
     // Drop information about processed lines.
@@ -856,7 +856,7 @@ public class SoftWrapApplianceManager implements DocumentListener, Dumpable {
 
     // Adjust viewport's 'y' coordinate if necessary.
     if (softWrapsBefore >= 0) {
-      int softWrapsNow = getNumberOfSoftWrapsBefore(anchorOffset);
+      int softWrapsNow = myStorage.getNumberOfSoftWrapsBefore(anchorOffset);
       if (softWrapsNow != softWrapsBefore) {
         scrollingModel.disableAnimation();
         try {
@@ -878,11 +878,6 @@ public class SoftWrapApplianceManager implements DocumentListener, Dumpable {
     myLastTopLeftCornerOffset = myEditor.logicalPositionToOffset(logicalPosition);
   }
 
-  private int getNumberOfSoftWrapsBefore(int offset) {
-    final int i = myStorage.getSoftWrapIndex(offset);
-    return i >= 0 ? i : -i - 1;
-  }
-
   private IndentType getIndentToUse() {
     return myEditor.getSettings().isUseCustomSoftWrapIndent() ? IndentType.CUSTOM : IndentType.NONE;
   }
@@ -57,4 +57,18 @@ public class ChangeSetTest extends LocalHistoryTestCase {
     assertFalse(cs(new ContentChange(nextId(), "f1", null, -1), new ContentChange(nextId(), "f2", null, -1)).isContentChangeOnly());
     assertFalse(cs(new CreateFileChange(nextId(), "f1"), new ContentChange(nextId(), "f2", null, -1)).isContentChangeOnly());
   }
+
+  @Test
+  public void testPaths() {
+    ChangeSetPaths paths = new ChangeSetPaths(cs(new RenameChange(nextId(), "dir/new", "old"),
+                                                 new PutLabelChange(nextId(), "label", "project")));
+
+    assertTrue(paths.affectsPath("dir/new"));
+    assertTrue(paths.affectsPath("dir/old/file"));
+    assertTrue(paths.affectsPath("dir"));
+    assertFalse(paths.affectsPath("dir/another"));
+
+    assertTrue(paths.affectsProject("project"));
+    assertFalse(paths.affectsProject("another project"));
+  }
 }
@@ -54,10 +54,18 @@ public class Diff {
     int[] ints2 = enumerator.enumerate(objects2, startShift, endCut);
     Reindexer reindexer = new Reindexer();
     int[][] discarded = reindexer.discardUnique(ints1, ints2);
-    IntLCS intLCS = new IntLCS(discarded[0], discarded[1]);
-    intLCS.execute();
     ChangeBuilder builder = new ChangeBuilder(startShift);
-    reindexer.reindex(intLCS.getPaths(), builder);
+    try {
+      IntLCS intLCS = new IntLCS(discarded[0], discarded[1]);
+      intLCS.execute();
+      reindexer.reindex(intLCS.getPaths(), builder);
+    }
+    catch (FilesTooBigForDiffException e) {
+      // too many differences to keep all the paths, fall back to the linear space algorithm
+      MyersLCS myersLCS = new MyersLCS(discarded[0], discarded[1]);
+      myersLCS.execute();
+      reindexer.reindex(myersLCS.getChanges(), builder);
+    }
     return builder.getFirstChange();
   }
 
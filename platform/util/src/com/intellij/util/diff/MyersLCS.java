@@ -0,0 +1,181 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.util.diff;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Linear space variation of Myers' O(ND) algorithm: the edit script is found by recursive splitting at the "middle snake",
+ * so memory usage is O(N + M) regardless of the number of differences (unlike {@link IntLCS} which stores all the paths).
+ * <p/>
+ * Elements which don't belong to the found common subsequence are marked in {@link #getChanges()}.
+ * <p/>
+ * The running time is O((N + M) * D), so the amount of work is limited by {@link #MAX_STEPS}: like {@link IntLCS},
+ * {@link FilesTooBigForDiffException} is thrown when there are too many differences.
+ */
+class MyersLCS {
+  // roughly the same time IntLCS needs to exceed its paths limit
+  private static final long MAX_STEPS = 50000000L;
+
+  private final int[] myFirst;
+  private final int[] mySecond;
+
+  private final BitSet myChanges1;
+  private final BitSet myChanges2;
+
+  private final int[] myForward;
+  private final int[] myBackward;
+
+  private long mySteps;
+
+  public MyersLCS(int[] first, int[] second) {
+    myFirst = first;
+    mySecond = second;
+    myChanges1 = new BitSet(first.length);
+    myChanges2 = new BitSet(second.length);
+
+    int maxD = (first.length + second.length + 1) / 2;
+    myForward = new int[2 * maxD + 2];
+    myBackward = new int[2 * maxD + 2];
+  }
+
+  public void execute() throws FilesTooBigForDiffException {
+    myChanges1.set(0, myFirst.length);
+    myChanges2.set(0, mySecond.length);
+    execute(0, myFirst.length, 0, mySecond.length);
+  }
+
+  /**
+   * @return elements of the first and the second sequences which are not a part of the common subsequence
+   */
+  public BitSet[] getChanges() {
+    return new BitSet[]{myChanges1, myChanges2};
+  }
+
+  private void execute(int start1, int end1, int start2, int end2) throws FilesTooBigForDiffException {
+    while (start1 < end1 && start2 < end2 && myFirst[start1] == mySecond[start2]) {
+      myChanges1.clear(start1++);
+      myChanges2.clear(start2++);
+    }
+    while (start1 < end1 && start2 < end2 && myFirst[end1 - 1] == mySecond[end2 - 1]) {
+      myChanges1.clear(--end1);
+      myChanges2.clear(--end2);
+    }
+    if (start1 == end1 || start2 == end2) return;
+
+    long split = findMiddleSnake(start1, end1, start2, end2);
+    if (split == -1) return;
+
+    int x = (int)(split >>> 32);
+    int y = (int)split;
+    execute(start1, x, start2, y);
+    execute(x, end1, y, end2);
+  }
+
+  /**
+   * @return point of the optimal path where the forward and the backward searches meet, encoded as <code>(x << 32) | y</code>;
+   *         <code>-1</code> if the ranges have nothing in common
+   */
+  private long findMiddleSnake(int start1, int end1, int start2, int end2) throws FilesTooBigForDiffException {
+    int n = end1 - start1;
+    int m = end2 - start2;
+    int maxD = (n + m + 1) / 2;
+    int offset = maxD;
+    int length = 2 * maxD;
+    Arrays.fill(myForward, 0, length, -1);
+    Arrays.fill(myBackward, 0, length, -1);
+    myForward[offset + 1] = 0;
+    myBackward[offset + 1] = 0;
+
+    int delta = n - m;
+    // if the total number of elements is odd the forward path collides with the reverse one
+    boolean front = (delta & 1) != 0;
+
+    // offsets for the start and the end of k loops, prevents mapping of space beyond the grid
+    int k1start = 0;
+    int k1end = 0;
+    int k2start = 0;
+    int k2end = 0;
+
+    for (int d = 0; d < maxD; d++) {
+      mySteps += 2 * d + 2;
+      if (mySteps > MAX_STEPS) throw new FilesTooBigForDiffException(myFirst.length + mySecond.length);
+
+      for (int k1 = -d + k1start; k1 <= d - k1end; k1 += 2) {
+        int k1Offset = offset + k1;
+        int x1 = k1 == -d || k1 != d && myForward[k1Offset - 1] < myForward[k1Offset + 1]
+                 ? myForward[k1Offset + 1]
+                 : myForward[k1Offset - 1] + 1;
+        int y1 = x1 - k1;
+        while (x1 < n && y1 < m && myFirst[start1 + x1] == mySecond[start2 + y1]) {
+          x1++;
+          y1++;
+        }
+        myForward[k1Offset] = x1;
+        if (x1 > n) {
+          k1end += 2;
+        }
+        else if (y1 > m) {
+          k1start += 2;
+        }
+        else if (front) {
+          int k2Offset = offset + delta - k1;
+          if (k2Offset >= 0 && k2Offset < length && myBackward[k2Offset] != -1) {
+            int x2 = n - myBackward[k2Offset];
+            if (x1 >= x2) {
+              return encode(start1 + x1, start2 + y1);
+            }
+          }
+        }
+      }
+
+      for (int k2 = -d + k2start; k2 <= d - k2end; k2 += 2) {
+        int k2Offset = offset + k2;
+        int x2 = k2 == -d || k2 != d && myBackward[k2Offset - 1] < myBackward[k2Offset + 1]
+                 ? myBackward[k2Offset + 1]
+                 : myBackward[k2Offset - 1] + 1;
+        int y2 = x2 - k2;
+        while (x2 < n && y2 < m && myFirst[end1 - x2 - 1] == mySecond[end2 - y2 - 1]) {
+          x2++;
+          y2++;
+        }
+        myBackward[k2Offset] = x2;
+        if (x2 > n) {
+          k2end += 2;
+        }
+        else if (y2 > m) {
+          k2start += 2;
+        }
+        else if (!front) {
+          int k1Offset = offset + delta - k2;
+          if (k1Offset >= 0 && k1Offset < length && myForward[k1Offset] != -1) {
+            int x1 = myForward[k1Offset];
+            int y1 = offset + x1 - k1Offset;
+            if (x1 >= n - x2) {
+              return encode(start1 + x1, start2 + y1);
+            }
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static long encode(int x, int y) {
+    return ((long)x << 32) | (y & 0xFFFFFFFFL);
+  }
+}
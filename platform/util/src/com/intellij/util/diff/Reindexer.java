@@ -18,6 +18,7 @@ package com.intellij.util.diff;
 import gnu.trove.TIntArrayList;
 
 import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * @author dyoma
@@ -100,6 +101,29 @@ class Reindexer {
         }
       }
     });
+    buildChanges(changes1, changes2, builder);
+  }
+
+  /**
+   * Same as {@link #reindex(LinkedDiffPaths, LCSBuilder)} for changes found by {@link MyersLCS}.
+   */
+  public void reindex(BitSet[] discardedChanges, LCSBuilder builder) {
+    final boolean[] changes1 = restoreChanges(discardedChanges[0], 0);
+    final boolean[] changes2 = restoreChanges(discardedChanges[1], 1);
+    buildChanges(changes1, changes2, builder);
+  }
+
+  private boolean[] restoreChanges(BitSet discardedChanges, int array) {
+    boolean[] changes = new boolean[myOriginalLengths[array]];
+    Arrays.fill(changes, true);
+    int[] oldIndecies = myOldIndecies[array];
+    for (int i = 0; i < oldIndecies.length; i++) {
+      if (!discardedChanges.get(i)) changes[oldIndecies[i]] = false;
+    }
+    return changes;
+  }
+
+  private static void buildChanges(boolean[] changes1, boolean[] changes2, LCSBuilder builder) {
     int x = 0;
     int y = 0;
     while (x < changes1.length && y < changes2.length) {
@@ -71,6 +71,26 @@ public class DiffTest extends TestCase {
     IntLCSTest.checkLastChange(change, 0, 0, 3, 0);
   }
 
+  public void testManyDifferences() throws FilesTooBigForDiffException {
+    // too many differences for IntLCS paths, linear space fallback is used
+    int max = 10000;
+    String[] first = new String[max];
+    String[] second = new String[max];
+    for (int i = 0; i < max; i++) {
+      first[i] = i % 2 == 0 ? "a" : "b";
+      second[i] = i < max / 2 ? "a" : "b";
+    }
+    Diff.Change change = Diff.buildChanges(first, second);
+    int deleted = 0;
+    int inserted = 0;
+    for (Diff.Change each : change.toList()) {
+      deleted += each.deleted;
+      inserted += each.inserted;
+    }
+    assertEquals(deleted, inserted);
+    assertEquals(max / 2 - 1, deleted);
+  }
+
   public void testPerformance() throws FilesTooBigForDiffException {
     ArrayList<String> first = new ArrayList<String>();
     ArrayList<String> second = new ArrayList<String>();
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.util.diff;
+
+import junit.framework.TestCase;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class MyersLCSTest extends TestCase {
+  public void testDiag() throws FilesTooBigForDiffException {
+    Diff.Change change = buildChange(new int[]{1, 2, 3}, new int[]{1, 2, 3});
+    assertNull(change);
+  }
+
+  public void testOneAtBegging() throws FilesTooBigForDiffException {
+    Diff.Change change = buildChange(new int[]{1, 2}, new int[]{1, 3});
+    IntLCSTest.checkLastChange(change, 1, 1, 1, 1);
+  }
+
+  public void testOneOverAtEnd() throws FilesTooBigForDiffException {
+    Diff.Change change = buildChange(new int[]{1, 2}, new int[]{1, 2, 3});
+    IntLCSTest.checkLastChange(change, 2, 2, 1, 0);
+  }
+
+  public void testOneOverAtBegging() throws FilesTooBigForDiffException {
+    Diff.Change change = buildChange(new int[]{1, 2, 3}, new int[]{2, 3});
+    IntLCSTest.checkLastChange(change, 0, 0, 0, 1);
+  }
+
+  public void testSingleMiddle() throws FilesTooBigForDiffException {
+    Diff.Change change = buildChange(new int[]{1, 2, 3}, new int[]{4, 2, 5});
+    IntLCSTest.checkChange(change, 0, 0, 1, 1);
+    IntLCSTest.checkLastChange(change.link, 2, 2, 1, 1);
+  }
+
+  public void testAbsolutelyDifferent() throws FilesTooBigForDiffException {
+    Diff.Change change = buildChange(new int[]{1, 2, 3}, new int[]{4, 5});
+    IntLCSTest.checkLastChange(change, 0, 0, 2, 3);
+  }
+
+  public void testSameDistanceAsIntLCS() throws FilesTooBigForDiffException {
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      int[] first = generate(random, random.nextInt(30), 1 + random.nextInt(5));
+      int[] second = generate(random, random.nextInt(30), 1 + random.nextInt(5));
+
+      MyersLCS myersLCS = new MyersLCS(first, second);
+      myersLCS.execute();
+      BitSet[] changes = myersLCS.getChanges();
+      assertEquals(new IntLCS(first, second).execute(), changes[0].cardinality() + changes[1].cardinality());
+
+      int index1 = changes[0].nextClearBit(0);
+      int index2 = changes[1].nextClearBit(0);
+      while (index1 < first.length && index2 < second.length) {
+        assertEquals(first[index1], second[index2]);
+        index1 = changes[0].nextClearBit(index1 + 1);
+        index2 = changes[1].nextClearBit(index2 + 1);
+      }
+      assertEquals(first.length, index1);
+      assertEquals(second.length, index2);
+    }
+  }
+
+  public void testTooManyDifferences() {
+    Random random = new Random(42);
+    int[] first = generate(random, 200000, 50);
+    int[] second = generate(random, 200000, 50);
+    try {
+      new MyersLCS(first, second).execute();
+      fail();
+    }
+    catch (FilesTooBigForDiffException ignored) {
+    }
+  }
+
+  private static int[] generate(Random random, int length, int alphabet) {
+    int[] result = new int[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = random.nextInt(alphabet);
+    }
+    return result;
+  }
+
+  private static Diff.Change buildChange(int[] first, int[] second) throws FilesTooBigForDiffException {
+    MyersLCS myersLCS = new MyersLCS(first, second);
+    myersLCS.execute();
+    Reindexer reindexer = new Reindexer();
+    reindexer.idInit(first.length, second.length);
+    Diff.ChangeBuilder builder = new Diff.ChangeBuilder(0);
+    reindexer.reindex(myersLCS.getChanges(), builder);
+    return builder.getFirstChange();
+  }
+}
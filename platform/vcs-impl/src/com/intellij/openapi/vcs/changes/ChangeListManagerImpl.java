@@ -34,6 +34,7 @@ import com.intellij.openapi.ui.MessageType;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.*;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vcs.*;
 import com.intellij.openapi.vcs.changes.conflicts.ChangelistConflictTracker;
@@ -65,6 +66,9 @@ import org.mustbe.consulo.roots.ContentFolderScopes;
 import javax.swing.*;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicReference;
@@ -627,23 +631,29 @@ public class ChangeListManagerImpl extends ChangeListManagerEx implements Projec
     final UpdatingChangeListBuilder builder = new UpdatingChangeListBuilder(dataHolder.getChangeListWorker(),
       dataHolder.getComposite(), myUpdater.getIsStoppedGetter(), myIgnoredIdeaLevel, gate);
 
-    for (final VcsDirtyScope scope : scopes) {
-      if (DEBUG) {
-        ChangeListManagerImpl.log("ChangeListManagerImpl.iterateScopes: scope = " + scope);
-      }
-      myUpdateChangesProgressIndicator.checkCanceled();
+    final List<VcsDirtyScope> partitions = Registry.is("vcs.changes.parallel.refresh") ? splitByRoots(scopes) : null;
+    if (partitions != null && countConcurrent(partitions) > 1) {
+      iterateScopesConcurrently(builder, partitions, wasEverythingDirty, dataHolder, gate);
+    }
+    else {
+      for (final VcsDirtyScope scope : scopes) {
+        if (DEBUG) {
+          ChangeListManagerImpl.log("ChangeListManagerImpl.iterateScopes: scope = " + scope);
+        }
+        myUpdateChangesProgressIndicator.checkCanceled();
 
-      final AbstractVcs vcs = scope.getVcs();
-      if (vcs == null) continue;
-      scope.setWasEverythingDirty(wasEverythingDirty);
-      final VcsModifiableDirtyScope adjustedScope = vcs.adjustDirtyScope((VcsModifiableDirtyScope) scope);
+        final AbstractVcs vcs = scope.getVcs();
+        if (vcs == null) continue;
+        scope.setWasEverythingDirty(wasEverythingDirty);
+        final VcsModifiableDirtyScope adjustedScope = vcs.adjustDirtyScope((VcsModifiableDirtyScope) scope);
 
-      myChangesViewManager.setBusy(true);
-      dataHolder.notifyStartProcessingChanges(adjustedScope);
+        myChangesViewManager.setBusy(true);
+        dataHolder.notifyStartProcessingChanges(adjustedScope);
 
-      actualUpdate(builder, adjustedScope, vcs, dataHolder, gate);
+        actualUpdate(builder, adjustedScope, vcs, dataHolder, gate);
 
-      if (myUpdateException != null) break;
+        if (myUpdateException != null) break;
+      }
     }
     synchronized (myDataLock) {
       if (myAdditionalInfo == null) {
@@ -652,6 +662,146 @@ public class ChangeListManagerImpl extends ChangeListManagerEx implements Projec
     }
   }
 
+  @NotNull
+  private static List<VcsDirtyScope> splitByRoots(@NotNull List<VcsDirtyScope> scopes) {
+    final List<VcsDirtyScope> result = new ArrayList<VcsDirtyScope>(scopes.size());
+    for (VcsDirtyScope scope : scopes) {
+      final AbstractVcs vcs = scope.getVcs();
+      // with nested roots a scope of the outer root covers the inner ones, so it's kept as is
+      if (scope instanceof VcsDirtyScopeImpl && isConcurrent(vcs) && !vcs.allowsNestedRoots()) {
+        result.addAll(((VcsDirtyScopeImpl)scope).splitByRoots());
+      }
+      else {
+        result.add(scope);
+      }
+    }
+    return result;
+  }
+
+  private static int countConcurrent(@NotNull List<VcsDirtyScope> scopes) {
+    int count = 0;
+    for (VcsDirtyScope scope : scopes) {
+      if (isConcurrent(scope.getVcs())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static boolean isConcurrent(@Nullable AbstractVcs vcs) {
+    return vcs != null && vcs.allowsConcurrentChangeRetrieval() && vcs.getChangeProvider() != null;
+  }
+
+  /**
+   * Change providers of the VCSes which {@link AbstractVcs#allowsConcurrentChangeRetrieval() allow it} are asked about their scopes
+   * in parallel, so that a slow root doesn't hold up the others. The reported changes are recorded and applied to the change lists
+   * one scope at a time, in the order of the scopes; scopes of the other VCSes are processed as usual when their turn comes.
+   * <p/>
+   * The results become visible only when the whole update is over, as in the sequential case.
+   */
+  private void iterateScopesConcurrently(final UpdatingChangeListBuilder builder, final List<VcsDirtyScope> scopes,
+                                         final boolean wasEverythingDirty, final DataHolder dataHolder, final ChangeListManagerGate gate) {
+    final ProgressIndicator indicator = myUpdateChangesProgressIndicator;
+    final List<VcsModifiableDirtyScope> adjustedScopes = new ArrayList<VcsModifiableDirtyScope>(scopes.size());
+    final List<Future<DeferredChangelistBuilder>> results = new ArrayList<Future<DeferredChangelistBuilder>>(scopes.size());
+    try {
+      for (final VcsDirtyScope scope : scopes) {
+        if (DEBUG) {
+          ChangeListManagerImpl.log("ChangeListManagerImpl.iterateScopesConcurrently: scope = " + scope);
+        }
+        indicator.checkCanceled();
+
+        final AbstractVcs vcs = scope.getVcs();
+        if (vcs == null) continue;
+        scope.setWasEverythingDirty(wasEverythingDirty);
+        final VcsModifiableDirtyScope adjustedScope = vcs.adjustDirtyScope((VcsModifiableDirtyScope) scope);
+        adjustedScopes.add(adjustedScope);
+        if (!isConcurrent(vcs)) {
+          results.add(null);
+          continue;
+        }
+
+        if (!wasEverythingDirty) {
+          // the provider should get the scope already extended by notifyStartProcessingChanges()
+          dataHolder.getChangeListWorker().correctScopeForMoves(adjustedScope);
+        }
+        final ChangeProvider changeProvider = vcs.getChangeProvider();
+        results.add(ApplicationManager.getApplication().executeOnPooledThread(new Callable<DeferredChangelistBuilder>() {
+          @Override
+          public DeferredChangelistBuilder call() throws Exception {
+            final DeferredChangelistBuilder changes = new DeferredChangelistBuilder();
+            changeProvider.getChanges(adjustedScope, changes, indicator, RefusingGate.INSTANCE);
+            return changes;
+          }
+        }));
+      }
+
+      for (int i = 0; i < adjustedScopes.size(); i++) {
+        final VcsModifiableDirtyScope adjustedScope = adjustedScopes.get(i);
+        final Future<DeferredChangelistBuilder> result = results.get(i);
+        if (result == null) {
+          myChangesViewManager.setBusy(true);
+          dataHolder.notifyStartProcessingChanges(adjustedScope);
+          actualUpdate(builder, adjustedScope, adjustedScope.getVcs(), dataHolder, gate);
+        }
+        else {
+          // the provider is done with the scope before the scope is cleared and adjusted once more
+          final DeferredChangelistBuilder changes = waitForChanges(result);
+          myChangesViewManager.setBusy(true);
+          dataHolder.notifyStartProcessingChanges(adjustedScope);
+          try {
+            if (changes != null) {
+              builder.setCurrent(adjustedScope, new FoldersCutDownWorker());
+              changes.replay(builder);
+            }
+          }
+          finally {
+            if (!myUpdater.isStopped()) {
+              dataHolder.notifyDoneProcessingChanges();
+            }
+          }
+        }
+        if (myUpdateException != null) break;
+      }
+    }
+    finally {
+      // don't leave providers running after the update is over
+      for (Future<DeferredChangelistBuilder> result : results) {
+        if (result == null) continue;
+        try {
+          result.get();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        catch (ExecutionException ignore) {
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private DeferredChangelistBuilder waitForChanges(@NotNull Future<DeferredChangelistBuilder> result) {
+    try {
+      return result.get();
+    }
+    catch (InterruptedException e) {
+      throw new RuntimeInterruptedException(e);
+    }
+    catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof VcsException) {
+        handleUpdateException((VcsException)cause);
+      }
+      else if (!(cause instanceof ProcessCanceledException)) {
+        LOG.debug(cause);
+        Rethrow.reThrowRuntime(cause);
+      }
+      return null;
+    }
+  }
+
   private void clearCurrentRevisionsCache(final VcsInvalidated invalidated) {
     final ContentRevisionCache cache = ProjectLevelVcsManager.getInstance(myProject).getContentRevisionCache();
     if (invalidated.isEverythingDirty()) {
@@ -748,6 +898,75 @@ public class ChangeListManagerImpl extends ChangeListManagerEx implements Projec
     }
   }
 
+  /**
+   * Given to change providers which are called concurrently: the change lists they would see or modify through the gate
+   * are being updated by the results of other scopes at the same time.
+   */
+  private static class RefusingGate implements ChangeListManagerGate {
+    private static final RefusingGate INSTANCE = new RefusingGate();
+
+    @Override
+    public List<LocalChangeList> getListsCopy() {
+      throw refuse();
+    }
+
+    @Nullable
+    @Override
+    public LocalChangeList findChangeList(String name) {
+      throw refuse();
+    }
+
+    @Override
+    public LocalChangeList addChangeList(String name, String comment) {
+      throw refuse();
+    }
+
+    @Override
+    public LocalChangeList findOrCreateList(String name, String comment) {
+      throw refuse();
+    }
+
+    @Override
+    public void editComment(String name, String comment) {
+      throw refuse();
+    }
+
+    @Override
+    public void editName(String oldName, String newName) {
+      throw refuse();
+    }
+
+    @Override
+    public void moveChanges(String toList, Collection<Change> changes) {
+      throw refuse();
+    }
+
+    @Override
+    public void setListsToDisappear(Collection<String> names) {
+      throw refuse();
+    }
+
+    @Override
+    public FileStatus getStatus(VirtualFile file) {
+      throw refuse();
+    }
+
+    @Override
+    public FileStatus getStatus(File file) {
+      throw refuse();
+    }
+
+    @Override
+    public void setDefaultChangeList(@NotNull String list) {
+      throw refuse();
+    }
+
+    @NotNull
+    private static UnsupportedOperationException refuse() {
+      return new UnsupportedOperationException("Change providers which allow concurrent change retrieval must not use the gate");
+    }
+  }
+
   private void handleUpdateException(final VcsException e) {
     LOG.info(e);
 
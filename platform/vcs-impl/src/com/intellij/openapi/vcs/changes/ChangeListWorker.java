@@ -372,6 +372,24 @@ public class ChangeListWorker implements ChangeListsWriteOperations {
     mySwitchedHolder.cleanAndAdjustScope(scope);
   }
 
+  /**
+   * Extends the scope with the other sides of registered moves and renames, the same way {@link #notifyStartProcessingChanges}
+   * does, but without touching the change lists.
+   */
+  public void correctScopeForMoves(@NotNull final VcsModifiableDirtyScope scope) {
+    final Collection<Change> changes = new ArrayList<Change>();
+    for (LocalChangeList list : myMap.values()) {
+      for (Change change : list.getChanges()) {
+        final ContentRevision before = change.getBeforeRevision();
+        final ContentRevision after = change.getAfterRevision();
+        if (before != null && scope.belongsTo(before.getFile()) || after != null && scope.belongsTo(after.getFile())) {
+          changes.add(change);
+        }
+      }
+    }
+    correctScopeForMoves(scope, changes);
+  }
+
   private void correctScopeForMoves(final VcsModifiableDirtyScope scope, final Collection<Change> changes) {
     if (scope == null) return;
     for (Change change : changes) {
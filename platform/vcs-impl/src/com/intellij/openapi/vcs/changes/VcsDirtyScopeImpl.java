@@ -34,6 +34,7 @@ import com.intellij.util.containers.Convertor;
 import com.intellij.util.containers.MultiMap;
 import gnu.trove.THashSet;
 import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
@@ -126,6 +127,39 @@ public class VcsDirtyScopeImpl extends VcsModifiableDirtyScope {
     return myAffectedContentRoots;
   }
 
+  /**
+   * @return scopes with the dirty files and directories of this scope grouped by VCS root, so that the change provider
+   *         can be asked about every root separately; this scope itself if it affects at most one root
+   */
+  @NotNull
+  public List<VcsDirtyScopeImpl> splitByRoots() {
+    if (myAffectedContentRoots.size() <= 1) return Collections.singletonList(this);
+
+    final List<VcsDirtyScopeImpl> result = new ArrayList<VcsDirtyScopeImpl>(myAffectedContentRoots.size());
+    for (VirtualFile root : myAffectedContentRoots) {
+      final VcsDirtyScopeImpl scope = new VcsDirtyScopeImpl(myVcs, myProject);
+      scope.myAffectedContentRoots.add(root);
+      final THashSet<FilePath> dirs = myDirtyDirectoriesRecursively.get(root);
+      if (dirs != null) {
+        scope.myDirtyDirectoriesRecursively.put(root, copy(dirs));
+      }
+      final THashSet<FilePath> files = myDirtyFiles.get(root);
+      if (files != null) {
+        scope.myDirtyFiles.put(root, copy(files));
+      }
+      scope.myWasEverythingDirty = myWasEverythingDirty;
+      result.add(scope);
+    }
+    return result;
+  }
+
+  @NotNull
+  private static THashSet<FilePath> copy(@NotNull Set<FilePath> paths) {
+    final THashSet<FilePath> result = new THashSet<FilePath>(paths.size());
+    result.addAll(paths);
+    return result;
+  }
+
   @Override
   public Project getProject() {
     return myProject;
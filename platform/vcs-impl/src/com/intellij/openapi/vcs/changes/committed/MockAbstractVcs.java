@@ -35,6 +35,7 @@ public class MockAbstractVcs extends AbstractVcs {
   private DiffProvider myDiffProvider;
   private ChangeProvider myChangeProvider;
   private boolean myAllowNestedRoots;
+  private boolean myAllowConcurrentChangeRetrieval;
 
   public MockAbstractVcs(Project project){
     super(project, NAME);
@@ -116,4 +117,13 @@ public class MockAbstractVcs extends AbstractVcs {
   public void setAllowNestedRoots(boolean allowNestedRoots) {
     myAllowNestedRoots = allowNestedRoots;
   }
+
+  @Override
+  public boolean allowsConcurrentChangeRetrieval() {
+    return myAllowConcurrentChangeRetrieval;
+  }
+
+  public void setAllowConcurrentChangeRetrieval(boolean allowConcurrentChangeRetrieval) {
+    myAllowConcurrentChangeRetrieval = allowConcurrentChangeRetrieval;
+  }
 }
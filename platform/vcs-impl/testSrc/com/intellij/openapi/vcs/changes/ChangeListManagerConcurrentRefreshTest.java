@@ -0,0 +1,182 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.openapi.vcs.changes;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vcs.FilePathImpl;
+import com.intellij.openapi.vcs.ProjectLevelVcsManager;
+import com.intellij.openapi.vcs.VcsDirectoryMapping;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.committed.MockAbstractVcs;
+import com.intellij.openapi.vcs.history.VcsRevisionNumber;
+import com.intellij.openapi.vcs.impl.ProjectLevelVcsManagerImpl;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PlatformTestCase;
+import com.intellij.testFramework.PsiTestUtil;
+import com.intellij.testFramework.vcs.MockContentRevision;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh of local changes of a VCS which allows its change provider to be asked about several roots at once.
+ */
+public class ChangeListManagerConcurrentRefreshTest extends PlatformTestCase {
+  private static final String PARALLEL_REFRESH = "vcs.changes.parallel.refresh";
+  private static final String FILE_NAME = "a.txt";
+
+  private boolean myParallelRefresh;
+  private MockAbstractVcs myVcs;
+  private ConcurrentChangeProvider myChangeProvider;
+  private VirtualFile myFile1;
+  private VirtualFile myFile2;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myParallelRefresh = Registry.is(PARALLEL_REFRESH);
+    Registry.get(PARALLEL_REFRESH).setValue(true);
+
+    myVcs = new MockAbstractVcs(myProject);
+    myVcs.setAllowConcurrentChangeRetrieval(true);
+    myChangeProvider = new ConcurrentChangeProvider(2);
+    myVcs.setChangeProvider(myChangeProvider);
+
+    final VirtualFile root1 = createRoot();
+    final VirtualFile root2 = createRoot();
+    myFile1 = root1.findChild(FILE_NAME);
+    myFile2 = root2.findChild(FILE_NAME);
+
+    final ProjectLevelVcsManagerImpl vcsManager = (ProjectLevelVcsManagerImpl)ProjectLevelVcsManager.getInstance(myProject);
+    vcsManager.registerVcs(myVcs);
+    vcsManager.setDirectoryMappings(Arrays.asList(new VcsDirectoryMapping(root1.getPath(), myVcs.getName()),
+                                                  new VcsDirectoryMapping(root2.getPath(), myVcs.getName())));
+    assertEquals(2, vcsManager.getRootsUnderVcs(myVcs).length);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      final ProjectLevelVcsManagerImpl vcsManager = (ProjectLevelVcsManagerImpl)ProjectLevelVcsManager.getInstance(myProject);
+      vcsManager.setDirectoryMappings(Collections.<VcsDirectoryMapping>emptyList());
+      vcsManager.unregisterVcs(myVcs);
+      Registry.get(PARALLEL_REFRESH).setValue(myParallelRefresh);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testEverythingDirty() throws Exception {
+    VcsDirtyScopeManager.getInstance(myProject).markEverythingDirty();
+    ChangeListManager.getInstance(myProject).ensureUpToDate(false);
+
+    assertTrue("change provider wasn't called for both roots at once", myChangeProvider.wasConcurrent());
+    checkChanges();
+  }
+
+  public void testFilesOfTwoRootsDirty() throws Exception {
+    VcsDirtyScopeManager.getInstance(myProject).markEverythingDirty();
+    ChangeListManager.getInstance(myProject).ensureUpToDate(false);
+    checkChanges();
+
+    myChangeProvider.reset(2);
+    VcsDirtyScopeManager.getInstance(myProject).filesDirty(Arrays.asList(myFile1, myFile2), null);
+    ChangeListManager.getInstance(myProject).ensureUpToDate(false);
+
+    assertTrue("change provider wasn't called for both roots at once", myChangeProvider.wasConcurrent());
+    checkChanges();
+  }
+
+  private void checkChanges() {
+    final ChangeListManager manager = ChangeListManager.getInstance(myProject);
+    assertNotNull(manager.getChange(myFile1));
+    assertNotNull(manager.getChange(myFile2));
+    assertEquals(2, manager.getDefaultChangeList().getChanges().size());
+  }
+
+  private VirtualFile createRoot() throws Exception {
+    final File dir = createTempDirectory();
+    FileUtil.writeToFile(new File(dir, FILE_NAME), "text");
+    final VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(dir);
+    assertNotNull(root);
+    root.refresh(false, true);
+    PsiTestUtil.addContentRoot(myModule, root);
+    return root;
+  }
+
+  /**
+   * Reports every {@link #FILE_NAME} file in the scope as added and checks that the expected number of calls overlap.
+   */
+  private static class ConcurrentChangeProvider implements ChangeProvider {
+    private volatile CountDownLatch myCalls;
+    private volatile boolean myConcurrent;
+
+    private ConcurrentChangeProvider(int expectedCalls) {
+      reset(expectedCalls);
+    }
+
+    private void reset(int expectedCalls) {
+      myCalls = new CountDownLatch(expectedCalls);
+      myConcurrent = false;
+    }
+
+    private boolean wasConcurrent() {
+      return myConcurrent;
+    }
+
+    @Override
+    public void getChanges(VcsDirtyScope dirtyScope, ChangelistBuilder builder, ProgressIndicator progress,
+                           ChangeListManagerGate addGate) throws VcsException {
+      final CountDownLatch calls = myCalls;
+      calls.countDown();
+      try {
+        if (calls.await(10, TimeUnit.SECONDS)) {
+          myConcurrent = true;
+        }
+      }
+      catch (InterruptedException e) {
+        throw new VcsException(e);
+      }
+
+      for (VirtualFile root : dirtyScope.getAffectedContentRoots()) {
+        final VirtualFile file = root.findChild(FILE_NAME);
+        if (file == null) continue;
+        final FilePath path = new FilePathImpl(file);
+        if (dirtyScope.belongsTo(path)) {
+          builder.processChange(new Change(null, new MockContentRevision(path, new VcsRevisionNumber.Int(1))), MockAbstractVcs.getKey());
+        }
+      }
+    }
+
+    @Override
+    public boolean isModifiedDocumentTrackingRequired() {
+      return false;
+    }
+
+    @Override
+    public void doCleanup(List<VirtualFile> files) {
+    }
+  }
+}
@@ -48,7 +48,7 @@ public abstract class DataGetter<T extends VcsShortCommitDetails> implements Dis
   /**
    * The sequence number of the current "loading" task.
    */
-  private long myCurrentTaskIndex = 0;
+  private volatile long myCurrentTaskIndex = 0;
 
   @NotNull private final Collection<Runnable> myLoadingFinishedListeners = new ArrayList<Runnable>();
 
@@ -107,7 +107,7 @@ public abstract class DataGetter<T extends VcsShortCommitDetails> implements Dis
       if (details instanceof LoadingDetails) {
         if (((LoadingDetails)details).getLoadingTaskIndex() <= myCurrentTaskIndex - MAX_LOADING_TASKS) {
           // don't let old "loading" requests stay in the cache forever
-          myCache.remove(hash);
+          myCache.remove(hash, details);
           return null;
         }
       }
@@ -132,9 +132,7 @@ public abstract class DataGetter<T extends VcsShortCommitDetails> implements Dis
       // fill the cache with temporary "Loading" values to avoid producing queries for each commit that has not been cached yet,
       // even if it will be loaded within a previous query
       for (Hash hash : hashes) {
-        if (!myCache.isKeyCached(hash)) {
-          myCache.put(hash, (T)new LoadingDetails(hash, taskNumber, root));
-        }
+        myCache.putIfAbsent(hash, (T)new LoadingDetails(hash, taskNumber, root));
       }
     }
 
@@ -165,19 +163,13 @@ public abstract class DataGetter<T extends VcsShortCommitDetails> implements Dis
         }
       });
       List<? extends T> details = readDetails(myLogProviders.get(entry.getKey()), entry.getKey(), hashStrings);
+      myDataHolder.storeCommitDetails(details);
       saveInCache(details);
     }
   }
 
-  public void saveInCache(final List<? extends T> details) {
-    UIUtil.invokeAndWaitIfNeeded(new Runnable() {
-      @Override
-      public void run() {
-        for (T data : details) {
-          myCache.put(data.getHash(), data);
-        }
-      }
-    });
+  public void saveInCache(@NotNull List<? extends T> details) {
+    myCache.putAll(details);
   }
 
   @NotNull
@@ -15,45 +15,107 @@
  */
 package com.intellij.vcs.log.data;
 
-import com.intellij.util.containers.SLRUMap;
 import com.intellij.vcs.log.Hash;
+import com.intellij.vcs.log.VcsCommitMetadata;
 import com.intellij.vcs.log.VcsShortCommitDetails;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.awt.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * <p>The cache of commit details.</p>
  * <p>It is not actually a cache, but rather a limited map, because there is intentionally no way to get the non-cached value if it was not
  *    found in the cache: such functionality is implemented by the {@link DataGetter} which is able to receive
  *    non-cached details more efficiently, in a batch.</p>
- * <p>Any access to the Cache MUST be performed from the EDT thread.</p>
+ * <p>The cache is thread-safe: details loaded in background are put here directly, without switching to the EDT.</p>
+ * <p>Least recently used details are dropped when either the number of details or their estimated size exceeds the limit.
+ *    The size is estimated by the lengths of commit messages; changes of full details are parsed lazily, so they are not counted.</p>
  *
  * @author Kirill Likhodedov
  */
 class VcsCommitCache<T extends VcsShortCommitDetails> {
+  private static final int MAX_SIZE = 10000;
+  private static final long MAX_WEIGHT = 16 * 1024 * 1024;
+  // rough size of a details object without its texts
+  private static final int DETAILS_WEIGHT = 200;
 
-  private final SLRUMap<Hash, T> myCache = new SLRUMap<Hash, T>(5000, 5000);
+  private final Map<Hash, T> myCache = new LinkedHashMap<Hash, T>(16, 0.75f, true);
+  private long myWeight;
 
   public void put(@NotNull Hash hash, @NotNull T commit) {
-    assert EventQueue.isDispatchThread();
-    myCache.put(hash, commit);
+    synchronized (myCache) {
+      doPut(hash, commit);
+      shrink();
+    }
   }
 
-  public boolean isKeyCached(@NotNull Hash hash) {
-    assert EventQueue.isDispatchThread();
-    return myCache.get(hash) != null;
+  /**
+   * Puts the details unless something is cached for the hash already. Checking and putting separately could overwrite details
+   * which have been loaded in background in between.
+   */
+  public void putIfAbsent(@NotNull Hash hash, @NotNull T commit) {
+    synchronized (myCache) {
+      if (!myCache.containsKey(hash)) {
+        doPut(hash, commit);
+        shrink();
+      }
+    }
+  }
+
+  public void putAll(@NotNull List<? extends T> commits) {
+    synchronized (myCache) {
+      for (T commit : commits) {
+        doPut(commit.getHash(), commit);
+      }
+      shrink();
+    }
   }
 
   @Nullable
   public T get(@NotNull Hash hash) {
-    assert EventQueue.isDispatchThread();
-    return myCache.get(hash);
+    synchronized (myCache) {
+      return myCache.get(hash);
+    }
+  }
+
+  /**
+   * Removes the given details, unless they have been replaced in the meantime.
+   */
+  public void remove(@NotNull Hash hash, @NotNull T commit) {
+    synchronized (myCache) {
+      if (myCache.get(hash) == commit) {
+        myCache.remove(hash);
+        myWeight -= getWeight(commit);
+      }
+    }
+  }
+
+  private void doPut(@NotNull Hash hash, @NotNull T commit) {
+    T old = myCache.put(hash, commit);
+    if (old != null) {
+      myWeight -= getWeight(old);
+    }
+    myWeight += getWeight(commit);
+  }
+
+  private void shrink() {
+    Iterator<T> iterator = myCache.values().iterator();
+    while ((myCache.size() > MAX_SIZE || myWeight > MAX_WEIGHT) && iterator.hasNext()) {
+      myWeight -= getWeight(iterator.next());
+      iterator.remove();
+    }
   }
 
-  public void remove(@NotNull Hash hash) {
-    myCache.remove(hash);
+  private static long getWeight(@NotNull VcsShortCommitDetails details) {
+    long chars = details.getSubject().length();
+    if (details instanceof VcsCommitMetadata) {
+      chars += ((VcsCommitMetadata)details).getFullMessage().length();
+    }
+    return DETAILS_WEIGHT + 2 * chars;
   }
 
 }
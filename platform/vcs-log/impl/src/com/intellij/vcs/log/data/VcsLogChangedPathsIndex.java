@@ -0,0 +1,174 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.vcs.log.data;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.util.io.*;
+import com.intellij.vcs.log.Hash;
+import gnu.trove.THashSet;
+import gnu.trove.TIntHashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persistent mapping from a commit index to the paths changed in this commit.
+ * <p/>
+ * It is filled with the changes which have been parsed anyway (by the structure filter or by providers which load changes eagerly),
+ * and lets the structure filter check commits whose details (with changes) are not in memory anymore.
+ * Each record keeps the hash of its commit, so a record which doesn't correspond to the commit index anymore is ignored.
+ * <p/>
+ * The index is not built in the background: commits whose changes have never been loaded are not in it,
+ * and the structure filter has to ask the VCS about them.
+ */
+class VcsLogChangedPathsIndex implements Disposable {
+  private static final Logger LOG = Logger.getInstance(VcsLogChangedPathsIndex.class);
+  private static final int VERSION = 1;
+
+  @NotNull private final PersistentStringEnumerator myPaths;
+  @NotNull private final PersistentHashMap<Integer, ChangedPaths> myChangedPaths;
+
+  VcsLogChangedPathsIndex(@NotNull Project project) throws IOException {
+    String prefix = project.getName() + "." + project.getLocationHash();
+    final File pathsFile = new File(VcsLogHashMap.LOG_CACHE_APP_DIR, prefix + ".paths");
+    myPaths = IOUtil.openCleanOrResetBroken(new ThrowableComputable<PersistentStringEnumerator, IOException>() {
+      @Override
+      public PersistentStringEnumerator compute() throws IOException {
+        return new PersistentStringEnumerator(pathsFile);
+      }
+    }, pathsFile);
+
+    final File changesFile = new File(VcsLogHashMap.LOG_CACHE_APP_DIR, prefix + ".changed.paths." + VERSION);
+    myChangedPaths = IOUtil.openCleanOrResetBroken(new ThrowableComputable<PersistentHashMap<Integer, ChangedPaths>, IOException>() {
+      @Override
+      public PersistentHashMap<Integer, ChangedPaths> compute() throws IOException {
+        return new PersistentHashMap<Integer, ChangedPaths>(changesFile, EnumeratorIntegerDescriptor.INSTANCE,
+                                                            new ChangedPathsExternalizer());
+      }
+    }, changesFile);
+  }
+
+  @NotNull
+  static Collection<String> getPaths(@NotNull Collection<Change> changes) {
+    Set<String> paths = new THashSet<String>();
+    for (Change change : changes) {
+      ContentRevision before = change.getBeforeRevision();
+      if (before != null) {
+        paths.add(before.getFile().getPath());
+      }
+      ContentRevision after = change.getAfterRevision();
+      if (after != null) {
+        paths.add(after.getFile().getPath());
+      }
+    }
+    return paths;
+  }
+
+  void index(int commitIndex, @NotNull Hash hash, @NotNull Collection<String> paths) {
+    try {
+      ChangedPaths stored = myChangedPaths.get(commitIndex);
+      if (stored != null && stored.myHash.equals(hash.asString())) return;
+
+      TIntHashSet pathIds = new TIntHashSet();
+      for (String path : paths) {
+        pathIds.add(myPaths.enumerate(path));
+      }
+      myChangedPaths.put(commitIndex, new ChangedPaths(hash.asString(), pathIds.toArray()));
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+    }
+  }
+
+  /**
+   * @return paths changed in the given commit, or null if the commit hasn't been indexed yet
+   */
+  @Nullable
+  Collection<String> getChangedPaths(int commitIndex, @NotNull Hash hash) {
+    try {
+      ChangedPaths changedPaths = myChangedPaths.get(commitIndex);
+      if (changedPaths == null || !changedPaths.myHash.equals(hash.asString())) return null;
+
+      List<String> paths = new ArrayList<String>(changedPaths.myPathIds.length);
+      for (int pathId : changedPaths.myPathIds) {
+        String path = myPaths.valueOf(pathId);
+        if (path != null) {
+          paths.add(path);
+        }
+      }
+      return paths;
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+      return null;
+    }
+  }
+
+  @Override
+  public void dispose() {
+    try {
+      myChangedPaths.close();
+      myPaths.close();
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+    }
+  }
+
+  private static class ChangedPaths {
+    @NotNull private final String myHash;
+    @NotNull private final int[] myPathIds;
+
+    private ChangedPaths(@NotNull String hash, @NotNull int[] pathIds) {
+      myHash = hash;
+      myPathIds = pathIds;
+    }
+  }
+
+  private static class ChangedPathsExternalizer implements DataExternalizer<ChangedPaths> {
+    @Override
+    public void save(@NotNull DataOutput out, ChangedPaths value) throws IOException {
+      IOUtil.writeUTF(out, value.myHash);
+      DataInputOutputUtil.writeINT(out, value.myPathIds.length);
+      for (int each : value.myPathIds) {
+        DataInputOutputUtil.writeINT(out, each);
+      }
+    }
+
+    @Override
+    public ChangedPaths read(@NotNull DataInput in) throws IOException {
+      String hash = IOUtil.readUTF(in);
+      int[] pathIds = new int[DataInputOutputUtil.readINT(in)];
+      for (int i = 0; i < pathIds.length; i++) {
+        pathIds[i] = DataInputOutputUtil.readINT(in);
+      }
+      return new ChangedPaths(hash, pathIds);
+    }
+  }
+}
@@ -35,7 +35,9 @@ import com.intellij.util.messages.Topic;
 import com.intellij.util.ui.UIUtil;
 import com.intellij.vcs.log.*;
 import com.intellij.vcs.log.impl.RequirementsImpl;
+import com.intellij.vcs.log.impl.VcsChangesLazilyParsedDetails;
 import com.intellij.vcs.log.util.StopWatch;
+import gnu.trove.TIntObjectHashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -143,6 +145,8 @@ public class VcsLogDataHolder implements Disposable, VcsLogDataProvider {
   private final VcsUserRegistry myUserRegistry;
 
   private final VcsLogHashMap myHashMap;
+  @Nullable private final VcsLogMetadataStorage myMetadataStorage;
+  @Nullable private final VcsLogChangedPathsIndex myChangedPathsIndex;
   private final NotNullFunction<Integer, Hash> myHashGetter;
   private final NotNullFunction<Hash, Integer> myIndexGetter;
   private final ContainingBranchesGetter myContainingBranchesGetter;
@@ -181,9 +185,37 @@ public class VcsLogDataHolder implements Disposable, VcsLogDataProvider {
         return getCommitIndex(hash);
       }
     };
+    myMetadataStorage = createMetadataStorage();
+    myChangedPathsIndex = createChangedPathsIndex();
     myContainingBranchesGetter = new ContainingBranchesGetter(this, this);
   }
 
+  @Nullable
+  private VcsLogMetadataStorage createMetadataStorage() {
+    try {
+      VcsLogMetadataStorage storage = new VcsLogMetadataStorage(myProject, myFactory, myLogProviders.keySet(), myHashGetter, myIndexGetter);
+      Disposer.register(this, storage);
+      return storage;
+    }
+    catch (IOException e) {
+      LOG.warn("Couldn't open the commit metadata cache, details filters will query the VCS", e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private VcsLogChangedPathsIndex createChangedPathsIndex() {
+    try {
+      VcsLogChangedPathsIndex index = new VcsLogChangedPathsIndex(myProject);
+      Disposer.register(this, index);
+      return index;
+    }
+    catch (IOException e) {
+      LOG.warn("Couldn't open the changed paths index, the structure filter will query the VCS", e);
+      return null;
+    }
+  }
+
   @Override
   @NotNull
   public Hash getHash(int commitIndex) {
@@ -309,12 +341,11 @@ public class VcsLogDataHolder implements Disposable, VcsLogDataProvider {
 
   @NotNull
   private List<CompactCommit> compactHashes(@NotNull List<? extends TimedVcsCommit> commits) {
-    List<CompactCommit> compactedHashes = ContainerUtil.map(commits, new Function<TimedVcsCommit, CompactCommit>() {
-      @Override
-      public CompactCommit fun(final TimedVcsCommit commit) {
-        return commit instanceof CompactCommit ? (CompactCommit)commit : new CompactCommit(commit);
-      }
-    });
+    if (commits instanceof CompactCommitList) {
+      //noinspection unchecked
+      return (List<CompactCommit>)commits;
+    }
+    CompactCommitList compactedHashes = new CompactCommitList(commits);
     myHashMap.flush();
     return compactedHashes;
   }
@@ -635,6 +666,51 @@ public class VcsLogDataHolder implements Disposable, VcsLogDataProvider {
     for (VcsCommitMetadata detail : firstBlockDetails) {
       myTopCommitsDetailsCache.put(detail.getHash(), detail);
     }
+    storeCommitDetails(firstBlockDetails);
+  }
+
+  /**
+   * Remembers metadata and changed paths of the given commits on disk,
+   * so that details filters could check them later without querying the VCS.
+   */
+  void storeCommitDetails(@NotNull List<? extends VcsShortCommitDetails> details) {
+    if (myMetadataStorage != null) {
+      myMetadataStorage.store(details);
+    }
+
+    for (VcsShortCommitDetails detail : details) {
+      // parsing changes of lazily parsed details is expensive, they are indexed when the structure filter parses them
+      if (detail instanceof VcsFullCommitDetails && !(detail instanceof VcsChangesLazilyParsedDetails)) {
+        indexChangedPaths(getCommitIndex(detail.getHash()), (VcsFullCommitDetails)detail);
+      }
+    }
+  }
+
+  /**
+   * Remembers paths changed in the given commit on disk.
+   *
+   * @return the changed paths
+   */
+  @NotNull
+  Collection<String> indexChangedPaths(int commitIndex, @NotNull VcsFullCommitDetails details) {
+    Collection<String> paths = VcsLogChangedPathsIndex.getPaths(details.getChanges());
+    if (myChangedPathsIndex != null) {
+      myChangedPathsIndex.index(commitIndex, details.getHash(), paths);
+    }
+    return paths;
+  }
+
+  @Nullable
+  VcsCommitMetadata getStoredCommitMetadata(int commitIndex) {
+    return myMetadataStorage != null ? myMetadataStorage.get(commitIndex) : null;
+  }
+
+  /**
+   * @return paths changed in the given commit, or null if they are not known yet
+   */
+  @Nullable
+  Collection<String> getChangedPaths(int commitIndex) {
+    return myChangedPathsIndex != null ? myChangedPathsIndex.getChangedPaths(commitIndex, getHash(commitIndex)) : null;
   }
 
   private List<TimedVcsCommit> getCommitsFromDetails(List<? extends VcsCommitMetadata> firstBlockDetails) {
@@ -835,6 +911,46 @@ public class VcsLogDataHolder implements Disposable, VcsLogDataProvider {
     }
   }
 
+  /**
+   * Keeps commits of the log skeleton in columns of primitive arrays instead of an object per commit,
+   * which matters for repositories with hundreds of thousands of commits.
+   * {@link CompactCommit} views are created on access.
+   */
+  private class CompactCommitList extends AbstractList<CompactCommit> implements RandomAccess {
+    private final int[] myHashIndices;
+    private final int[] myParents;
+    private final long[] myTimes;
+    // other parents of merge commits, by position in the list
+    private final TIntObjectHashMap<int[]> myOtherParents = new TIntObjectHashMap<int[]>();
+
+    public CompactCommitList(@NotNull List<? extends TimedVcsCommit> commits) {
+      int size = commits.size();
+      myHashIndices = new int[size];
+      myParents = new int[size];
+      myTimes = new long[size];
+      for (int i = 0; i < size; i++) {
+        TimedVcsCommit commit = commits.get(i);
+        CompactCommit compactCommit = commit instanceof CompactCommit ? (CompactCommit)commit : new CompactCommit(commit);
+        myHashIndices[i] = compactCommit.myHashIndex;
+        myParents[i] = compactCommit.myParent;
+        myTimes[i] = compactCommit.myTime;
+        if (compactCommit.myOtherParents != null) {
+          myOtherParents.put(i, compactCommit.myOtherParents);
+        }
+      }
+    }
+
+    @Override
+    public CompactCommit get(int index) {
+      return new CompactCommit(myHashIndices[index], myParents[index], myOtherParents.get(index), myTimes[index]);
+    }
+
+    @Override
+    public int size() {
+      return myHashIndices.length;
+    }
+  }
+
   private class CompactCommit implements TimedVcsCommit, GraphCommit {
     private final int myHashIndex;
     private final int myParent; // there is almost always one parent
@@ -845,6 +961,13 @@ public class VcsLogDataHolder implements Disposable, VcsLogDataProvider {
       this(commit.getHash(), commit.getParents(), commit.getTime());
     }
 
+    private CompactCommit(int hashIndex, int parent, @Nullable int[] otherParents, long time) {
+      myHashIndex = hashIndex;
+      myParent = parent;
+      myOtherParents = otherParents;
+      myTime = time;
+    }
+
     public CompactCommit(Hash hash, List<Hash> parents, long time) {
       myHashIndex = getCommitIndex(hash);
       myTime = time;
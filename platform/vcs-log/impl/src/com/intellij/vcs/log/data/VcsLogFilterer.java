@@ -5,12 +5,11 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.EmptyRunnable;
-import com.intellij.openapi.util.Ref;
 import com.intellij.util.Consumer;
 import com.intellij.util.Function;
+import com.intellij.util.ThreeState;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.HashSet;
-import com.intellij.util.ui.UIUtil;
 import com.intellij.vcs.log.*;
 import com.intellij.vcs.log.graph.GraphFacade;
 import com.intellij.vcs.log.impl.VcsLogUtil;
@@ -164,37 +163,66 @@ public class VcsLogFilterer {
         // no more continuous details in the cache
         break;
       }
-      if (matchesAllFilters(data, detailsFilters)) {
+      ThreeState matches = matchesAllFilters(visibleCommit, data, detailsFilters);
+      if (matches == ThreeState.UNSURE) {
+        // the commit can't be checked without loading its details
+        break;
+      }
+      if (matches == ThreeState.YES) {
         result.add(data.getHash());
       }
     }
     return result;
   }
 
-  private static boolean matchesAllFilters(@NotNull final VcsCommitMetadata commit, @NotNull List<VcsLogDetailsFilter> detailsFilters) {
-    return !ContainerUtil.exists(detailsFilters, new Condition<VcsLogDetailsFilter>() {
-      @Override
-      public boolean value(VcsLogDetailsFilter filter) {
-        return !filter.matches(commit);
+  @NotNull
+  private ThreeState matchesAllFilters(int commitIndex, @NotNull VcsCommitMetadata commit,
+                                       @NotNull List<VcsLogDetailsFilter> detailsFilters) {
+    ThreeState result = ThreeState.YES;
+    for (VcsLogDetailsFilter filter : detailsFilters) {
+      ThreeState matches = matches(filter, commitIndex, commit);
+      if (matches == ThreeState.NO) return ThreeState.NO;
+      if (matches == ThreeState.UNSURE) {
+        result = ThreeState.UNSURE;
       }
-    });
+    }
+    return result;
+  }
+
+  @NotNull
+  private ThreeState matches(@NotNull VcsLogDetailsFilter filter, int commitIndex, @NotNull VcsCommitMetadata commit) {
+    if (filter instanceof VcsLogStructureFilterImpl) {
+      VcsLogStructureFilterImpl structureFilter = (VcsLogStructureFilterImpl)filter;
+      Collection<String> paths;
+      if (commit instanceof VcsFullCommitDetails) {
+        // the changes have to be parsed to check the commit anyway, so remember their paths for the next time
+        paths = myLogDataHolder.indexChangedPaths(commitIndex, (VcsFullCommitDetails)commit);
+      }
+      else {
+        // changes are not loaded for this commit, but they could have been indexed before
+        paths = myLogDataHolder.getChangedPaths(commitIndex);
+        if (paths == null) return ThreeState.UNSURE;
+      }
+      return structureFilter.matchesPaths(paths) ? ThreeState.YES : ThreeState.NO;
+    }
+    return filter.matches(commit) ? ThreeState.YES : ThreeState.NO;
   }
 
   @Nullable
-  private VcsCommitMetadata getDetailsFromCache(final int commitIndex) {
-    final Hash hash = myLogDataHolder.getHash(commitIndex);
+  private VcsCommitMetadata getDetailsFromCache(int commitIndex) {
+    Hash hash = myLogDataHolder.getHash(commitIndex);
     VcsCommitMetadata details = myLogDataHolder.getTopCommitDetails(hash);
     if (details != null) {
       return details;
     }
-    final Ref<VcsCommitMetadata> ref = Ref.create();
-    UIUtil.invokeAndWaitIfNeeded(new Runnable() {
-      @Override
-      public void run() {
-        ref.set(myLogDataHolder.getCommitDetailsGetter().getCommitDataIfAvailable(hash));
+    VcsCommitMetadata cached = myLogDataHolder.getCommitDetailsGetter().getCommitDataIfAvailable(hash);
+    if (cached == null || cached instanceof LoadingDetails) {
+      VcsCommitMetadata stored = myLogDataHolder.getStoredCommitMetadata(commitIndex);
+      if (stored != null) {
+        return stored;
       }
-    });
-    return ref.get();
+    }
+    return cached;
   }
 
 }
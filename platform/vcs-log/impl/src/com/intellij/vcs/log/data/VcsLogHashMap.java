@@ -42,7 +42,7 @@ import java.io.IOException;
  */
 class VcsLogHashMap implements Disposable {
 
-  private static final File LOG_CACHE_APP_DIR = new File(PathManager.getSystemPath(), "vcs-log");
+  static final File LOG_CACHE_APP_DIR = new File(PathManager.getSystemPath(), "vcs-log");
   private static final Logger LOG = Logger.getInstance(VcsLogHashMap.class);
 
   private final PersistentEnumerator<Hash> myPersistentEnumerator;
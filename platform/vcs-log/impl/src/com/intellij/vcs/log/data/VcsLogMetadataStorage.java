@@ -0,0 +1,240 @@
+/*
+ * Copyright 2000-2014 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.vcs.log.data;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.NotNullFunction;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.PersistentHashMap;
+import com.intellij.vcs.log.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent int -> commit metadata (message, author, committer) mapping.
+ * <p/>
+ * It is filled with metadata which has been loaded from the VCS anyway (top commits, details shown in the table),
+ * and allows text and user filters to check commits which are not in the in-memory caches without querying the VCS.
+ * <p/>
+ * Each record keeps the hash of its commit, so a record which doesn't correspond to the commit index anymore
+ * (e.g. after the hash map has been recreated) is ignored. The hashes are also kept in a separate small map,
+ * so that storing a batch of details doesn't have to read the stored records back to find out which of them are up to date.
+ */
+class VcsLogMetadataStorage implements Disposable {
+  private static final Logger LOG = Logger.getInstance(VcsLogMetadataStorage.class);
+  private static final int VERSION = 1;
+
+  @NotNull private final PersistentHashMap<Integer, Metadata> myMap;
+  @NotNull private final PersistentHashMap<Integer, String> myHashes;
+  @NotNull private final VcsLogObjectsFactory myFactory;
+  @NotNull private final Collection<VirtualFile> myRoots;
+  @NotNull private final NotNullFunction<Integer, Hash> myHashGetter;
+  @NotNull private final NotNullFunction<Hash, Integer> myIndexGetter;
+
+  VcsLogMetadataStorage(@NotNull Project project, @NotNull VcsLogObjectsFactory factory, @NotNull Collection<VirtualFile> roots,
+                        @NotNull NotNullFunction<Integer, Hash> hashGetter, @NotNull NotNullFunction<Hash, Integer> indexGetter)
+    throws IOException {
+    myFactory = factory;
+    myRoots = roots;
+    myHashGetter = hashGetter;
+    myIndexGetter = indexGetter;
+
+    String prefix = project.getName() + "." + project.getLocationHash();
+    final File mapFile = new File(VcsLogHashMap.LOG_CACHE_APP_DIR, prefix + ".metadata." + VERSION);
+    myMap = IOUtil.openCleanOrResetBroken(new ThrowableComputable<PersistentHashMap<Integer, Metadata>, IOException>() {
+      @Override
+      public PersistentHashMap<Integer, Metadata> compute() throws IOException {
+        return new PersistentHashMap<Integer, Metadata>(mapFile, EnumeratorIntegerDescriptor.INSTANCE, new MetadataExternalizer());
+      }
+    }, mapFile);
+
+    final File hashesFile = new File(VcsLogHashMap.LOG_CACHE_APP_DIR, prefix + ".metadata.hashes." + VERSION);
+    myHashes = IOUtil.openCleanOrResetBroken(new ThrowableComputable<PersistentHashMap<Integer, String>, IOException>() {
+      @Override
+      public PersistentHashMap<Integer, String> compute() throws IOException {
+        return new PersistentHashMap<Integer, String>(hashesFile, EnumeratorIntegerDescriptor.INSTANCE,
+                                                      EnumeratorStringDescriptor.INSTANCE);
+      }
+    }, hashesFile);
+  }
+
+  void store(@NotNull Collection<? extends VcsShortCommitDetails> details) {
+    try {
+      for (VcsShortCommitDetails detail : details) {
+        if (detail instanceof VcsCommitMetadata) {
+          VcsCommitMetadata metadata = (VcsCommitMetadata)detail;
+          int index = myIndexGetter.fun(metadata.getHash());
+          String hash = metadata.getHash().asString();
+          if (!hash.equals(myHashes.get(index))) {
+            myMap.put(index, new Metadata(metadata));
+            myHashes.put(index, hash);
+          }
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+    }
+  }
+
+  @Nullable
+  VcsCommitMetadata get(int commitIndex) {
+    try {
+      Metadata metadata = myMap.get(commitIndex);
+      Hash hash = myHashGetter.fun(commitIndex);
+      if (metadata == null || !hash.asString().equals(metadata.myHash)) {
+        if (hash.asString().equals(myHashes.get(commitIndex))) {
+          // the records have been lost (e.g. the map was reset as broken), let the next store() write them again
+          myHashes.remove(commitIndex);
+        }
+        return null;
+      }
+
+      VirtualFile root = findRoot(metadata.myRoot);
+      if (root == null) return null;
+
+      List<Hash> parents = new ArrayList<Hash>(metadata.myParents.length);
+      for (String parent : metadata.myParents) {
+        parents.add(myFactory.createHash(parent));
+      }
+      return myFactory.createCommitMetadata(hash, parents, metadata.myTime, root, metadata.mySubject,
+                                            metadata.myAuthorName, metadata.myAuthorEmail, metadata.myMessage,
+                                            metadata.myCommitterName, metadata.myCommitterEmail, metadata.myAuthorTime);
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private VirtualFile findRoot(@NotNull String path) {
+    for (VirtualFile root : myRoots) {
+      if (root.getPath().equals(path)) {
+        return root;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void dispose() {
+    close(myMap);
+    close(myHashes);
+  }
+
+  private static void close(@NotNull PersistentHashMap<Integer, ?> map) {
+    try {
+      map.close();
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+    }
+  }
+
+  private static class Metadata {
+    @NotNull private final String myHash;
+    @NotNull private final String myRoot;
+    @NotNull private final String[] myParents;
+    private final long myTime;
+    private final long myAuthorTime;
+    @NotNull private final String mySubject;
+    @NotNull private final String myMessage;
+    @NotNull private final String myAuthorName;
+    @NotNull private final String myAuthorEmail;
+    @NotNull private final String myCommitterName;
+    @NotNull private final String myCommitterEmail;
+
+    private Metadata(@NotNull VcsCommitMetadata metadata) {
+      myHash = metadata.getHash().asString();
+      myRoot = metadata.getRoot().getPath();
+      List<Hash> parents = metadata.getParents();
+      myParents = new String[parents.size()];
+      for (int i = 0; i < myParents.length; i++) {
+        myParents[i] = parents.get(i).asString();
+      }
+      myTime = metadata.getTime();
+      myAuthorTime = metadata.getAuthorTime();
+      mySubject = metadata.getSubject();
+      myMessage = metadata.getFullMessage();
+      myAuthorName = metadata.getAuthor().getName();
+      myAuthorEmail = metadata.getAuthor().getEmail();
+      myCommitterName = metadata.getCommitter().getName();
+      myCommitterEmail = metadata.getCommitter().getEmail();
+    }
+
+    private Metadata(@NotNull DataInput in) throws IOException {
+      myHash = IOUtil.readUTF(in);
+      myRoot = IOUtil.readUTF(in);
+      myParents = new String[in.readInt()];
+      for (int i = 0; i < myParents.length; i++) {
+        myParents[i] = IOUtil.readUTF(in);
+      }
+      myTime = in.readLong();
+      myAuthorTime = in.readLong();
+      mySubject = IOUtil.readUTF(in);
+      myMessage = IOUtil.readUTF(in);
+      myAuthorName = IOUtil.readUTF(in);
+      myAuthorEmail = IOUtil.readUTF(in);
+      myCommitterName = IOUtil.readUTF(in);
+      myCommitterEmail = IOUtil.readUTF(in);
+    }
+
+    private void save(@NotNull DataOutput out) throws IOException {
+      IOUtil.writeUTF(out, myHash);
+      IOUtil.writeUTF(out, myRoot);
+      out.writeInt(myParents.length);
+      for (String parent : myParents) {
+        IOUtil.writeUTF(out, parent);
+      }
+      out.writeLong(myTime);
+      out.writeLong(myAuthorTime);
+      IOUtil.writeUTF(out, mySubject);
+      IOUtil.writeUTF(out, myMessage);
+      IOUtil.writeUTF(out, myAuthorName);
+      IOUtil.writeUTF(out, myAuthorEmail);
+      IOUtil.writeUTF(out, myCommitterName);
+      IOUtil.writeUTF(out, myCommitterEmail);
+    }
+  }
+
+  private static class MetadataExternalizer implements DataExternalizer<Metadata> {
+    @Override
+    public void save(@NotNull DataOutput out, Metadata value) throws IOException {
+      value.save(out);
+    }
+
+    @Override
+    public Metadata read(@NotNull DataInput in) throws IOException {
+      return new Metadata(in);
+    }
+  }
+}
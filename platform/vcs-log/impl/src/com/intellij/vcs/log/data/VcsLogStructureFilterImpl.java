@@ -88,6 +88,18 @@ public class VcsLogStructureFilterImpl implements VcsLogDetailsFilter, VcsLogStr
     }
   }
 
+  /**
+   * Checks the commit by its changed paths, e.g. taken from the {@link VcsLogChangedPathsIndex}.
+   */
+  public boolean matchesPaths(@NotNull Collection<String> paths) {
+    for (String path : paths) {
+      if (matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private boolean matches(@NotNull final String path) {
     return ContainerUtil.find(myFiles, new Condition<VirtualFile>() {
       @Override